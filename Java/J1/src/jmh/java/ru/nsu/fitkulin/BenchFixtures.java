@@ -0,0 +1,57 @@
+package ru.nsu.fitkulin;
+
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.Objects;
+
+/** Общее для бенчмарков: ключ издателя из ресурсов и выпуск сертификата так же, как в Server.worker(). */
+final class BenchFixtures {
+    static final X500Name ISSUER = new X500Name("CN=FATSUN");
+
+    private BenchFixtures() {}
+
+    static PrivateKey issuerKey() throws IOException {
+        Security.addProvider(new BouncyCastleProvider());
+        try (InputStream is = BenchFixtures.class.getClassLoader().getResourceAsStream("Mykey.pem");
+             PEMParser pemParser = new PEMParser(new InputStreamReader(Objects.requireNonNull(is)))) {
+            return new JcaPEMKeyConverter().getPrivateKey((PrivateKeyInfo) pemParser.readObject());
+        }
+    }
+
+    static ContentSigner signer(PrivateKey issuerKey) throws OperatorCreationException {
+        return new JcaContentSignerBuilder(Server.signatureAlgorithm(issuerKey))
+                .setProvider("BC")
+                .build(issuerKey);
+    }
+
+    static X509Certificate issue(KeyPair pair, String name, ContentSigner signer,
+                                 JcaX509CertificateConverter converter) throws CertificateException {
+        Date notBefore = new Date();
+        Date notAfter = new Date(notBefore.getTime() + 365L * 24 * 60 * 60 * 1000);
+        X509v3CertificateBuilder certBuilder = new X509v3CertificateBuilder(
+                ISSUER, new BigInteger(64, new SecureRandom()), notBefore, notAfter,
+                new X500Name("CN=" + name), SubjectPublicKeyInfo.getInstance(pair.getPublic().getEncoded()));
+        return converter.getCertificate(certBuilder.build(signer));
+    }
+}
@@ -0,0 +1,81 @@
+package ru.nsu.fitkulin;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный запрос по loopback, когда ключ уже в кэше: соединение, разбор, поиск в кэше, отправка PEM.
+ * Генерации здесь нет — это нижняя граница задержки сервера.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheHitBenchmark {
+
+    @Param({"ec-p256", "rsa-8192"})
+    public String spec;
+
+    private Server server;
+    private Thread acceptor;
+    private int port;
+    private byte[] request;
+
+    @Setup
+    public void setup() throws Exception {
+        // фоновая догенерация пулов и лог запросов только мешали бы замеру
+        System.setProperty("pool.specs", "");
+        System.setProperty("log.maxPerSecond", "0");
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        server = new Server(port, 2);
+        acceptor = new Thread(server::start, "bench-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        request = (spec + "\u001Fbench\0").getBytes(StandardCharsets.US_ASCII);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                requestOnce(); // первый запрос — промах, ключ попадёт в кэш
+                break;
+            } catch (IOException e) {
+                if (attempt == 50) throw e;
+                Thread.sleep(100); // сервер ещё не открыл сокет
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        // shutdown закрывает ServerSocket; start выходит из accept и дожидается обработчиков
+        server.shutdown();
+        acceptor.join();
+    }
+
+    @Benchmark
+    public int hit() throws IOException {
+        return requestOnce();
+    }
+
+    private int requestOnce() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(request);
+            out.flush();
+            InputStream in = socket.getInputStream();
+            byte[] response = in.readAllBytes();
+            if (response.length == 0 || response[0] == 'E') {
+                throw new IOException("Unexpected response: " + new String(response, StandardCharsets.US_ASCII));
+            }
+            return response.length;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ru.nsu.fitkulin;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.*;
+import ru.nsu.fitkulin.DTO.KeySpec;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.Security;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чистая генерация пары ключей для каждого KeySpec — основная цена промаха кэша и пула.
+ * Суффикс /parallel — ParallelRsaKeyGenerator на всех ядрах; есть только у RSA, для остальных он совпал бы с jca.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class KeygenBenchmark {
+
+    @Param({"rsa-2048", "rsa-2048/parallel", "rsa-3072", "rsa-3072/parallel", "rsa-4096", "rsa-4096/parallel",
+            "rsa-8192", "rsa-8192/parallel", "ec-p256", "ed25519"})
+    public String spec;
+
+    private KeyPairGenerator generator;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() throws NoSuchAlgorithmException {
+        Security.addProvider(new BouncyCastleProvider());
+        String[] specEngine = spec.split("/");
+        KeySpec keySpec = KeySpec.parse(specEngine[0]);
+        if (specEngine.length > 1) {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+            generator = new ParallelRsaKeyGenerator(pool, keySpec.keySize());
+        } else {
+            generator = keySpec.newGenerator();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    @Benchmark
+    public KeyPair generate() {
+        return generator.generateKeyPair();
+    }
+}
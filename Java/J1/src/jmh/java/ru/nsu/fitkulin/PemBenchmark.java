@@ -0,0 +1,53 @@
+package ru.nsu.fitkulin;
+
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.openjdk.jmh.annotations.*;
+import ru.nsu.fitkulin.DTO.KeySpec;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+/** PEM-кодировщики из Pem: по отдельности и целый ответ клиенту. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PemBenchmark {
+
+    @Param({"rsa-8192", "ec-p256"})
+    public String spec;
+
+    private KeyPair pair;
+    private X509Certificate cert;
+
+    @Setup
+    public void setup() throws IOException, GeneralSecurityException, OperatorCreationException {
+        pair = KeySpec.parse(spec).newGenerator().generateKeyPair();
+        cert = BenchFixtures.issue(pair, "bench", BenchFixtures.signer(BenchFixtures.issuerKey()),
+                new JcaX509CertificateConverter().setProvider("BC"));
+    }
+
+    @Benchmark
+    public String publicKey() {
+        return Pem.keyToPem(pair.getPublic());
+    }
+
+    @Benchmark
+    public String privateKey() {
+        return Pem.privateKeyToPem(pair.getPrivate());
+    }
+
+    @Benchmark
+    public String certificate() throws CertificateEncodingException {
+        return Pem.certToPem(cert);
+    }
+
+    @Benchmark
+    public byte[] bundle() throws CertificateEncodingException {
+        return Pem.bundle(pair.getPrivate(), pair.getPublic(), cert);
+    }
+}
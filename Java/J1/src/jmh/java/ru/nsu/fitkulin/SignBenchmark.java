@@ -0,0 +1,54 @@
+package ru.nsu.fitkulin;
+
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.openjdk.jmh.annotations.*;
+import ru.nsu.fitkulin.DTO.KeySpec;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск сертификата ключом издателя: ContentSigner заново на каждую задачу (как в worker())
+ * против одного signer'а на поток.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SignBenchmark {
+
+    private PrivateKey issuerKey;
+    private KeyPair subject;
+    private ContentSigner reused;
+    private JcaX509CertificateConverter converter;
+
+    @Setup
+    public void setup() throws IOException, GeneralSecurityException, OperatorCreationException {
+        issuerKey = BenchFixtures.issuerKey();
+        // ключ субъекта на подпись почти не влияет — берём дешёвый
+        subject = KeySpec.EC_P256.newGenerator().generateKeyPair();
+        reused = BenchFixtures.signer(issuerKey);
+        converter = new JcaX509CertificateConverter().setProvider("BC");
+    }
+
+    @Benchmark
+    public X509Certificate signerPerTask() throws OperatorCreationException, CertificateException {
+        return BenchFixtures.issue(subject, "bench", BenchFixtures.signer(issuerKey), converter);
+    }
+
+    @Benchmark
+    public X509Certificate signerReused() throws CertificateException {
+        return BenchFixtures.issue(subject, "bench", reused, converter);
+    }
+
+    @Benchmark
+    public ContentSigner buildSignerOnly() throws OperatorCreationException {
+        return BenchFixtures.signer(issuerKey);
+    }
+}
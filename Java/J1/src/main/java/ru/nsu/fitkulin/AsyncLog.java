@@ -0,0 +1,51 @@
+package ru.nsu.fitkulin;
+
+import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Асинхронный журнал для горячего пути: вызывающий поток только кладёт строку в очередь,
+ * печатает отдельный поток. Не больше maxPerSecond строк в секунду; лишние и не влезшие
+ * в очередь отбрасываются, их число печатается следующей строкой.
+ */
+final class AsyncLog {
+    private final BlockingQueue<String> lines = new ArrayBlockingQueue<>(4096);
+    private final PrintStream out;
+    private final int maxPerSecond;
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicLong inWindow = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    AsyncLog(PrintStream out, int maxPerSecond) {
+        this.out = out;
+        this.maxPerSecond = maxPerSecond;
+        Thread writer = new Thread(this::drain, "async-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void log(String line) {
+        if (maxPerSecond <= 0) return;
+        long second = System.nanoTime() / TimeUnit.SECONDS.toNanos(1);
+        long start = windowStart.get();
+        if (second != start && windowStart.compareAndSet(start, second)) inWindow.set(0);
+        if (inWindow.incrementAndGet() > maxPerSecond || !lines.offer(line)) dropped.increment();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                String line = lines.take();
+                long lost = dropped.sumThenReset();
+                if (lost > 0) out.println("... " + lost + " log lines dropped");
+                out.println(line);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ru.nsu.fitkulin;
+
+import ru.nsu.fitkulin.DTO.ClientKey;
+import ru.nsu.fitkulin.DTO.PendingKey;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Ограниченный кэш: LRU по числу записей и/или по байтам, истечение по notAfter сертификата.
+ * В режиме tinyLfu новая запись вытесняет старейшую, только если её спрашивали чаще (W-TinyLFU,
+ * где «окном» служат ещё генерирующиеся записи — их не вытесняем никогда).
+ */
+final class BoundedKeyCache implements KeyCache {
+
+    private static final class Entry {
+        final PendingKey future;
+        long weight;      // 0, пока ключ не готов
+        long expiresAt = Long.MAX_VALUE;
+
+        Entry(PendingKey future) { this.future = future; }
+    }
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final FrequencySketch sketch;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    BoundedKeyCache(int maxEntries, long maxBytes, boolean tinyLfu) {
+        if (maxEntries <= 0 && maxBytes <= 0) {
+            throw new IllegalArgumentException("Bounded cache needs cache.maxEntries or cache.maxBytesMb");
+        }
+        this.maxEntries = maxEntries > 0 ? maxEntries : Integer.MAX_VALUE;
+        this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+        this.sketch = tinyLfu ? new FrequencySketch(maxEntries > 0 ? maxEntries : 1024) : null;
+    }
+
+    @Override
+    public PendingKey computeIfAbsent(String name, Function<String, PendingKey> loader) {
+        Entry created;
+        lock.lock();
+        try {
+            if (sketch != null) sketch.increment(name);
+            Entry e = map.get(name);
+            if (e != null && e.expiresAt <= System.currentTimeMillis()) {
+                unlink(name, e);
+                evictions.increment();
+                e = null;
+            }
+            if (e != null) {
+                if (e.future.isDone()) hits.increment();
+                else coalesced.increment();
+                return e.future;
+            }
+            misses.increment();
+            created = new Entry(loader.apply(name));
+            map.put(name, created);
+        } finally {
+            lock.unlock();
+        }
+        // вес и срок жизни известны только после генерации
+        created.future.thenAccept(key -> onLoaded(name, created, key));
+        return created.future;
+    }
+
+    private void onLoaded(String name, Entry entry, ClientKey key) {
+        long weight = KeyCache.weigh(key);
+        lock.lock();
+        try {
+            if (map.get(name) != entry) return; // уже удалена или заменена
+            entry.weight = weight;
+            entry.expiresAt = key.certificate().getNotAfter().getTime();
+            bytes += weight;
+            evictIfNeeded(name, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Вытесняем с «холодного» конца LRU, пропуская записи в процессе генерации. */
+    private void evictIfNeeded(String candidateName, Entry candidate) {
+        Iterator<Map.Entry<String, Entry>> it = map.entrySet().iterator();
+        while ((map.size() > maxEntries || bytes > maxBytes) && it.hasNext()) {
+            Map.Entry<String, Entry> victim = it.next();
+            Entry v = victim.getValue();
+            if (v == candidate || !v.future.isDone()) continue;
+
+            if (sketch != null && candidate.future.isDone()
+                    && sketch.frequency(candidateName) < sketch.frequency(victim.getKey())) {
+                // новичок менее популярен — не принимаем его, старожил остаётся
+                unlink(candidateName, candidate);
+                evictions.increment();
+                return;
+            }
+            it.remove();
+            bytes -= v.weight;
+            evictions.increment();
+        }
+    }
+
+    @Override
+    public boolean remove(String name, PendingKey future) {
+        lock.lock();
+        try {
+            Entry e = map.get(name);
+            if (e == null || e.future != future) return false;
+            unlink(name, e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unlink(String name, Entry e) {
+        map.remove(name);
+        bytes -= e.weight;
+    }
+
+    @Override public int size() {
+        lock.lock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long bytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override public long hits() { return hits.sum(); }
+
+    @Override public long coalesced() { return coalesced.sum(); }
+
+    @Override public long misses() { return misses.sum(); }
+
+    @Override public long evictions() { return evictions.sum(); }
+
+    @Override public String toString() {
+        return String.format("KeyCache[%s, size=%d, bytes=%d, hits=%d, coalesced=%d, misses=%d, evictions=%d]",
+                sketch != null ? "tinylfu" : "lru", size(), bytes(), hits(), coalesced(), misses(), evictions());
+    }
+}
@@ -0,0 +1,127 @@
+package ru.nsu.fitkulin;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кластерный режим: статический список узлов, каждое имя (вместе со spec) принадлежит одному узлу
+ * по консистентному хешу. Чужие запросы пересылаются владельцу с пометкой FORWARD — владелец
+ * обслуживает их сам и дальше не пересылает, так что разные взгляды на кольцо не дают петель.
+ * Недоступный владелец пропускается: его дугу берёт следующий узел по кольцу.
+ */
+final class ClusterRouter {
+    private static final int CONNECT_TIMEOUT_MS = 1000;
+    private static final int POLL_MS = 200;
+
+    private final String self;
+    private final HashRing ring;
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder failovers = new LongAdder();
+
+    private ClusterRouter(String self, HashRing ring) {
+        this.self = self;
+        this.ring = ring;
+    }
+
+    /** null, если cluster.peers пуст — обычный одиночный сервер. */
+    static ClusterRouter create(ServerConfig config, int port) {
+        String peers = config.getString("cluster.peers", "");
+        if (peers.isBlank()) return null;
+        String self = config.getString("cluster.self", "").trim();
+        if (self.isEmpty()) self = "127.0.0.1:" + port;
+        Set<String> nodes = new LinkedHashSet<>();
+        nodes.add(self);
+        for (String peer : peers.split(",")) {
+            if (!peer.isBlank()) nodes.add(peer.trim());
+        }
+        for (String node : nodes) address(node); // кривой адрес — ошибка при старте, а не на запросе
+        return new ClusterRouter(self, new HashRing(nodes, config.getInt("cluster.vnodes", 128)));
+    }
+
+    boolean owns(String key) {
+        return ring.owner(key).equals(self);
+    }
+
+    /**
+     * Отправить запрос владельцу ключа и вернуть его кадр-ответ.
+     * null — обслуживать здесь: мы владелец, или все узлы перед нами на кольце недоступны;
+     * либо клиент ушёл, не дождавшись (gone) — тогда отвечать уже некому.
+     */
+    Protocol.Frame forward(String key, String request, String client, CompletableFuture<Void> gone)
+            throws IOException {
+        for (String node : ring.successors(key)) {
+            if (node.equals(self)) return null;
+            Socket socket = new Socket();
+            try {
+                socket.connect(address(node), CONNECT_TIMEOUT_MS);
+            } catch (IOException e) {
+                socket.close();
+                failovers.increment();
+                continue;
+            }
+            forwarded.increment();
+            try (socket) {
+                OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+                out.write(Protocol.FORWARD);
+                out.write(client.getBytes(StandardCharsets.US_ASCII));
+                out.write(0);
+                out.write(request.getBytes(StandardCharsets.US_ASCII));
+                out.write(0);
+                out.flush();
+
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                if (!awaitResponse(socket, in, gone)) return null;
+                Protocol.Frame frame = Protocol.readFrame(in);
+                if (frame == null) throw new EOFException("Node " + node + " closed the connection");
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ждём первый байт ответа, периодически проверяя gone; false — наш клиент ушёл.
+     * Закрытие сокета при этом сообщает владельцу, что ключ больше не нужен.
+     */
+    private static boolean awaitResponse(Socket socket, InputStream in, CompletableFuture<Void> gone)
+            throws IOException {
+        socket.setSoTimeout(POLL_MS);
+        while (true) {
+            try {
+                in.mark(1);
+                int b = in.read();
+                in.reset();
+                if (b == -1) throw new EOFException("Node closed the connection");
+                socket.setSoTimeout(0);
+                return true;
+            } catch (SocketTimeoutException e) {
+                if (gone.isDone()) return false;
+            }
+        }
+    }
+
+    private static InetSocketAddress address(String node) {
+        int colon = node.lastIndexOf(':');
+        if (colon <= 0) throw new IllegalArgumentException("Cluster node must be host:port, got " + node);
+        try {
+            return new InetSocketAddress(node.substring(0, colon), Integer.parseInt(node.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cluster node must be host:port, got " + node);
+        }
+    }
+
+    long forwarded() { return forwarded.sum(); }
+
+    long failovers() { return failovers.sum(); }
+
+    @Override public String toString() {
+        return String.format("Cluster[self=%s, forwarded=%d, failovers=%d]", self, forwarded(), failovers());
+    }
+}
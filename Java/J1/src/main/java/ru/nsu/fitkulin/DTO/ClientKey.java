@@ -4,5 +4,8 @@ import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.cert.X509Certificate;
 
-public record ClientKey(PrivateKey privateKey, PublicKey publicKey, X509Certificate certificate) {
+/**
+ * pem — уже закодированный ответ клиенту (ASCII), отдаётся одной записью в сокет. Не изменять.
+ */
+public record ClientKey(PrivateKey privateKey, PublicKey publicKey, X509Certificate certificate, byte[] pem) {
 }
@@ -0,0 +1,64 @@
+package ru.nsu.fitkulin.DTO;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * Алгоритм и размер ключа, которые клиент может запросить.
+ * На проводе передаётся id перед именем через 0x1F: "ec-p256\u001Falice\0".
+ */
+public enum KeySpec {
+    RSA_2048("rsa-2048", "RSA", 2048, null),
+    RSA_3072("rsa-3072", "RSA", 3072, null),
+    RSA_4096("rsa-4096", "RSA", 4096, null),
+    RSA_8192("rsa-8192", "RSA", 8192, null),
+    EC_P256("ec-p256", "EC", 0, "secp256r1"),
+    ED25519("ed25519", "Ed25519", 0, null);
+
+    /** Что получает клиент, не указавший алгоритм, — как было до появления выбора. */
+    public static final KeySpec DEFAULT = RSA_8192;
+    public static final char SEPARATOR = '\u001F';
+
+    private final String id;
+    private final String algorithm;
+    private final int keySize;
+    private final String curve;
+
+    KeySpec(String id, String algorithm, int keySize, String curve) {
+        this.id = id;
+        this.algorithm = algorithm;
+        this.keySize = keySize;
+        this.curve = curve;
+    }
+
+    public String id() { return id; }
+
+    public String algorithm() { return algorithm; }
+
+    public int keySize() { return keySize; }
+
+    public KeyPairGenerator newGenerator() throws NoSuchAlgorithmException {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance(algorithm);
+        try {
+            if (curve != null) kpg.initialize(new ECGenParameterSpec(curve));
+            else if (keySize > 0) kpg.initialize(keySize);
+        } catch (InvalidAlgorithmParameterException e) {
+            throw new NoSuchAlgorithmException("Unsupported key spec " + id, e);
+        }
+        return kpg;
+    }
+
+    /** Ключ кэша и хранилища: для DEFAULT — просто имя, чтобы старые записи остались валидны. */
+    public String qualify(String name) {
+        return this == DEFAULT ? name : id + SEPARATOR + name;
+    }
+
+    public static KeySpec parse(String id) {
+        for (KeySpec spec : values()) {
+            if (spec.id.equalsIgnoreCase(id)) return spec;
+        }
+        throw new IllegalArgumentException("Unknown key spec: " + id);
+    }
+}
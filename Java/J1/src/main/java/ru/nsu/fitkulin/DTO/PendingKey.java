@@ -0,0 +1,77 @@
+package ru.nsu.fitkulin.DTO;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ключ, который генерируется или ищется на диске, со счётчиком ожидающих клиентов.
+ * Если последний клиент ушёл до того, как воркер взял задачу, future отменяется,
+ * и задача выбрасывается из очереди. Начатую генерацию не отменяем — результат пойдёт в кэш.
+ * Завершение тоже отмечается в state (DONE), поэтому «последний ушёл» и «ключ готов»
+ * решаются одним CAS: готовый ключ не отменится, а отменённый не заполнится.
+ */
+public final class PendingKey extends CompletableFuture<ClientKey> {
+    private static final int STARTED = 1 << 30;
+    private static final int DONE = 1 << 29;
+    private static final int ABANDONED = -1;
+
+    // число ожидающих | STARTED | DONE, либо ABANDONED
+    private final AtomicInteger state = new AtomicInteger();
+
+    /** Записаться ожидающим; false, если все уже ушли и future отменён. */
+    public boolean retain() {
+        while (true) {
+            int s = state.get();
+            if (s == ABANDONED) return false;
+            if (state.compareAndSet(s, s + 1)) return true;
+        }
+    }
+
+    /** Клиент больше не ждёт (ответ отдан, таймаут или разрыв соединения). */
+    public void release() {
+        while (true) {
+            int s = state.get();
+            if (s == ABANDONED) return;
+            int next = s - 1;
+            if (next == 0) {
+                if (state.compareAndSet(s, ABANDONED)) {
+                    cancel(false);
+                    return;
+                }
+            } else if (state.compareAndSet(s, next)) {
+                return;
+            }
+        }
+    }
+
+    @Override public boolean complete(ClientKey value) {
+        return markDone() && super.complete(value);
+    }
+
+    @Override public boolean completeExceptionally(Throwable ex) {
+        return markDone() && super.completeExceptionally(ex);
+    }
+
+    /** false — future уже отменён: все ушли раньше, чем ключ был готов. */
+    private boolean markDone() {
+        while (true) {
+            int s = state.get();
+            if (s == ABANDONED) return false;
+            if ((s & DONE) != 0 || state.compareAndSet(s, s | DONE)) return true;
+        }
+    }
+
+    /** Воркер берёт задачу; false — её уже никто не ждёт. */
+    public boolean start() {
+        while (true) {
+            int s = state.get();
+            if (s == ABANDONED) return false;
+            if (state.compareAndSet(s, s | STARTED)) return true;
+        }
+    }
+
+    public int waiters() {
+        int s = state.get();
+        return s == ABANDONED ? 0 : s & ~(STARTED | DONE);
+    }
+}
@@ -0,0 +1,5 @@
+package ru.nsu.fitkulin.DTO;
+
+public enum Priority {
+    HIGH, NORMAL, LOW
+}
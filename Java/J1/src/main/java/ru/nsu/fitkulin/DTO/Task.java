@@ -1,7 +1,14 @@
 package ru.nsu.fitkulin.DTO;
 
-import java.util.concurrent.CompletableFuture;
+/**
+ * name — CN сертификата, spec — какой ключ генерировать;
+ * owner — адрес клиента, по которому планировщик делит очередь;
+ * deadlineNanos — System.nanoTime(), после которого задачу уже никто не ждёт (Long.MAX_VALUE — без срока).
+ */
+public record Task(String name, KeySpec spec, PendingKey client, String owner, Priority priority,
+                   long deadlineNanos) {
 
-public record Task(String name, CompletableFuture<ClientKey> client) {
+    public boolean expired(long nowNanos) {
+        return deadlineNanos != Long.MAX_VALUE && nowNanos - deadlineNanos >= 0;
+    }
 }
-
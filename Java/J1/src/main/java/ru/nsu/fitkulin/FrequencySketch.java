@@ -0,0 +1,51 @@
+package ru.nsu.fitkulin;
+
+/**
+ * Count-Min sketch частот обращений для TinyLFU-допуска в кэш.
+ * Счётчики периодически делятся пополам, чтобы старая популярность «остывала».
+ * Не потокобезопасен — вызывается под замком кэша.
+ */
+final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int[][] table;
+    private final int mask;
+    private final int resetAt;
+    private int additions;
+
+    FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(16, expectedEntries) * 2 - 1) << 1;
+        this.table = new int[DEPTH][width];
+        this.mask = width - 1;
+        this.resetAt = Math.max(16, expectedEntries) * 10;
+    }
+
+    void increment(String key) {
+        int h = key.hashCode();
+        for (int i = 0; i < DEPTH; i++) {
+            int idx = index(h, i);
+            if (table[i][idx] < Integer.MAX_VALUE) table[i][idx]++;
+        }
+        if (++additions >= resetAt) age();
+    }
+
+    int frequency(String key) {
+        int h = key.hashCode();
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) min = Math.min(min, table[i][index(h, i)]);
+        return min;
+    }
+
+    private int index(int hash, int row) {
+        int h = hash * SEEDS[row];
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void age() {
+        for (int[] row : table) {
+            for (int j = 0; j < row.length; j++) row[j] >>>= 1;
+        }
+        additions /= 2;
+    }
+}
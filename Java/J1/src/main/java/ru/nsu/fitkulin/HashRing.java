@@ -0,0 +1,58 @@
+package ru.nsu.fitkulin;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Консистентное хеширование (как в ketama): каждый узел занимает vnodes точек на кольце,
+ * ключ принадлежит первой точке по часовой стрелке. Узел, который добавили или убрали,
+ * забирает или отдаёт только свои дуги — остальные ключи не переезжают.
+ */
+final class HashRing {
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+    private final int nodes;
+
+    HashRing(Collection<String> nodes, int vnodes) {
+        if (nodes.isEmpty()) throw new IllegalArgumentException("Hash ring needs at least one node");
+        if (vnodes <= 0) throw new IllegalArgumentException("cluster.vnodes must be positive");
+        for (String node : nodes) {
+            for (int i = 0; i < vnodes; i++) {
+                points.put(hash(node + "#" + i), node);
+            }
+        }
+        this.nodes = new HashSet<>(nodes).size();
+    }
+
+    String owner(String key) {
+        Map.Entry<Long, String> e = points.ceilingEntry(hash(key));
+        return (e != null ? e : points.firstEntry()).getValue();
+    }
+
+    /** Узлы в порядке обхода кольца от владельца: куда переедет дуга, если владелец выпадет. */
+    List<String> successors(String key) {
+        List<String> result = new ArrayList<>(nodes);
+        long h = hash(key);
+        for (String node : points.tailMap(h, true).values()) {
+            if (!result.contains(node)) result.add(node);
+            if (result.size() == nodes) return result;
+        }
+        for (String node : points.values()) {
+            if (!result.contains(node)) result.add(node);
+            if (result.size() == nodes) break;
+        }
+        return result;
+    }
+
+    private static long hash(String s) {
+        try {
+            byte[] d = MessageDigest.getInstance("MD5").digest(s.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) h = (h << 8) | (d[i] & 0xFF);
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
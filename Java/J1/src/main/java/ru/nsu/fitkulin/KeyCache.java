@@ -0,0 +1,59 @@
+package ru.nsu.fitkulin;
+
+import ru.nsu.fitkulin.DTO.ClientKey;
+import ru.nsu.fitkulin.DTO.PendingKey;
+
+import java.security.cert.CertificateEncodingException;
+import java.util.function.Function;
+
+/**
+ * Кэш выданных ключей по имени. Значение — future, поэтому одновременные запросы
+ * одного имени сходятся на одной генерации.
+ */
+interface KeyCache {
+
+    /** Как ConcurrentMap.computeIfAbsent: loader вызывается не более одного раза на имя. */
+    PendingKey computeIfAbsent(String name, Function<String, PendingKey> loader);
+
+    /** Удалить запись, только если она всё ещё указывает на этот future. */
+    boolean remove(String name, PendingKey future);
+
+    int size();
+
+    long hits();
+
+    long coalesced();
+
+    long misses();
+
+    long evictions();
+
+    static KeyCache create(ServerConfig config) {
+        String policy = config.getString("cache.policy", "lru");
+        int maxEntries = config.getInt("cache.maxEntries", 10_000);
+        long maxBytes = config.getInt("cache.maxBytesMb", 0) * 1024L * 1024L;
+        return switch (policy) {
+            case "unbounded" -> new UnboundedKeyCache();
+            case "lru" -> new BoundedKeyCache(maxEntries, maxBytes, false);
+            case "tinylfu" -> new BoundedKeyCache(maxEntries, maxBytes, true);
+            default -> throw new IllegalArgumentException("Unknown cache.policy: " + policy);
+        };
+    }
+
+    /** Истёк ли сертификат готового ключа (незавершённые и упавшие future не истекают). */
+    static boolean isExpired(PendingKey future, long now) {
+        if (!future.isDone() || future.isCompletedExceptionally()) return false;
+        return future.join().certificate().getNotAfter().getTime() <= now;
+    }
+
+    /** Примерный размер записи: DER закрытого и открытого ключа, сертификат и готовый PEM-ответ. */
+    static long weigh(ClientKey key) {
+        long bytes = key.privateKey().getEncoded().length + key.publicKey().getEncoded().length + key.pem().length;
+        try {
+            bytes += key.certificate().getEncoded().length;
+        } catch (CertificateEncodingException ignored) {
+            // сертификат уже разобран, кодирование не падает; считаем без него
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.nsu.fitkulin;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул заранее сгенерированных ключевых пар.
+ * Пополняется простаивающими генераторами: как только в пуле меньше lowWatermark пар,
+ * свободные потоки догенерируют его до highWatermark.
+ * Клиентов от фоновой генерации защищает не приоритет потока (на Linux HotSpot он ни на что
+ * не влияет), а отбор работы: генератор берётся за пул только после IDLE_POLL_MS без задач
+ * в очереди, и только по разрешению из refillers — общих для всех пулов сервера, которых
+ * меньше, чем генераторов, так что хотя бы один поток всегда свободен для клиента.
+ */
+final class KeyPool {
+    private final KeyPairGenerator kpg;
+    private final BlockingQueue<KeyPair> pairs;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final Semaphore refillers;
+
+    private final AtomicBoolean refilling = new AtomicBoolean(true); // при старте заполняем до high
+    private final AtomicInteger activeRefillers = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    KeyPool(KeyPairGenerator kpg, int lowWatermark, int highWatermark, Semaphore refillers) {
+        if (lowWatermark < 0 || highWatermark < lowWatermark) {
+            throw new IllegalArgumentException("Expected 0 <= lowWatermark <= highWatermark, got "
+                    + lowWatermark + " / " + highWatermark);
+        }
+        this.kpg = kpg;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.refillers = refillers;
+        this.pairs = new ArrayBlockingQueue<>(Math.max(1, highWatermark));
+        if (highWatermark == 0) refilling.set(false);
+    }
+
+    /** Готовая пара из пула или null, если пул пуст (тогда генерируем на месте). */
+    KeyPair poll() {
+        KeyPair pair = pairs.poll();
+        if (pair != null) hits.increment();
+        else misses.increment();
+        if (pairs.size() < lowWatermark) refilling.set(true);
+        return pair;
+    }
+
+    /**
+     * Сгенерировать одну пару в пул, если он ниже отметки. Вызывается генератором,
+     * которому нечего делать. Возвращает false, если пополнять не нужно.
+     */
+    boolean refillOne() {
+        if (!refilling.get()) return false;
+        if (pairs.size() + activeRefillers.get() >= highWatermark) {
+            if (pairs.size() >= highWatermark) refilling.set(false);
+            return false;
+        }
+        if (!refillers.tryAcquire()) return false;
+        activeRefillers.incrementAndGet();
+
+        try {
+            pairs.offer(kpg.generateKeyPair());
+        } finally {
+            activeRefillers.decrementAndGet();
+            refillers.release();
+        }
+        return true;
+    }
+
+    int size() { return pairs.size(); }
+
+    long hits() { return hits.sum(); }
+
+    long misses() { return misses.sum(); }
+
+    double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override public String toString() {
+        return String.format("KeyPool[size=%d, low=%d, high=%d, hits=%d, misses=%d, hitRate=%.1f%%]",
+                size(), lowWatermark, highWatermark, hits(), misses(), hitRate() * 100);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.nsu.fitkulin;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек в духе HdrHistogram: логарифмические корзины по степени двойки,
+ * каждая поделена на 8 линейных, — относительная погрешность перцентилей не хуже 12.5%.
+ * Запись без блокировок; значения в микросекундах.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+
+    void recordNanos(long nanos) {
+        record(Math.max(0, nanos / 1000));
+    }
+
+    void record(long micros) {
+        counts.incrementAndGet(index(micros));
+        total.increment();
+        sumMicros.add(micros);
+    }
+
+    private static int index(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;   // сколько младших бит отбрасываем
+        int sub = (int) (v >>> exp) & (SUB_BUCKETS - 1);
+        return (exp + 1) * SUB_BUCKETS + sub;
+    }
+
+    /** Верхняя граница корзины — отчёт не занижает задержку. */
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exp = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << exp) - 1;
+    }
+
+    long count() { return total.sum(); }
+
+    double meanMicros() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sumMicros.sum() / n;
+    }
+
+    /** Перцентиль в микросекундах, p в диапазоне (0, 100]. */
+    long percentile(double p) {
+        long n = total.sum();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(n * p / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    long maxMicros() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) return upperBound(i);
+        }
+        return 0;
+    }
+
+    String summary() {
+        return String.format("n=%d mean=%.0fus p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus",
+                count(), meanMicros(), percentile(50), percentile(90), percentile(99), percentile(99.9), maxMicros());
+    }
+}
@@ -0,0 +1,222 @@
+package ru.nsu.fitkulin;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный режим клиента. Каждый одновременный запрос идёт по своему конвейерному соединению,
+ * по одному запросу за раз; сервер в кадре сообщает, был ли ключ готов (hit) или его ждали (miss).
+ * <p>
+ * rate = 0 — закрытая петля: concurrency потоков шлют следующий запрос сразу после ответа.
+ * rate > 0 — открытая петля: запросы уходят по расписанию независимо от ответов, задержка
+ * считается от запланированного момента, так что очередь за свободным соединением тоже попадает
+ * в замер (без coordinated omission).
+ */
+final class LoadGenerator {
+
+    /** Распределение имён: unique — каждый раз новое, hot:K — равномерно из K, zipf:K[:s] — Zipf из K. */
+    private interface Names {
+        String next(ThreadLocalRandom random);
+    }
+
+    private final String host;
+    private final int port;
+    private final String spec;
+    private final int concurrency;
+    private final int rate;
+    private final long durationNanos;
+    private final Names names;
+    private final boolean write;
+
+    private final LatencyHistogram hits = new LatencyHistogram();
+    private final LatencyHistogram misses = new LatencyHistogram();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final BlockingQueue<Connection> idle;
+
+    LoadGenerator(String host, int port, String spec, int concurrency, int rate, int durationSec,
+                  String distribution, boolean write) {
+        if (concurrency <= 0) throw new IllegalArgumentException("--concurrency must be positive");
+        if (rate < 0) throw new IllegalArgumentException("--rate must not be negative");
+        if (durationSec <= 0) throw new IllegalArgumentException("--duration must be positive");
+        this.host = host;
+        this.port = port;
+        this.spec = spec;
+        this.concurrency = concurrency;
+        this.rate = rate;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSec);
+        this.names = parseNames(distribution);
+        this.write = write;
+        this.idle = new ArrayBlockingQueue<>(concurrency);
+    }
+
+    private static Names parseNames(String distribution) {
+        String[] parts = distribution.split(":");
+        switch (parts[0]) {
+            case "unique" -> {
+                String prefix = "load-" + System.currentTimeMillis() + "-";
+                AtomicLong counter = new AtomicLong();
+                return random -> prefix + counter.incrementAndGet();
+            }
+            case "hot" -> {
+                int size = parts.length > 1 ? Integer.parseInt(parts[1]) : 100;
+                if (size <= 0) throw new IllegalArgumentException("Hot set size must be positive");
+                return random -> "hot-" + random.nextInt(size);
+            }
+            case "zipf" -> {
+                int size = parts.length > 1 ? Integer.parseInt(parts[1]) : 1000;
+                double exponent = parts.length > 2 ? Double.parseDouble(parts[2]) : 1.0;
+                if (size <= 0) throw new IllegalArgumentException("Zipf set size must be positive");
+                double[] cdf = zipfCdf(size, exponent);
+                return random -> {
+                    int i = Arrays.binarySearch(cdf, random.nextDouble());
+                    return "hot-" + (i >= 0 ? i : Math.min(-i - 1, size - 1));
+                };
+            }
+            default -> throw new IllegalArgumentException("Unknown name distribution: " + distribution);
+        }
+    }
+
+    /** Накопленные вероятности рангов 1..size с весами 1/rank^s. */
+    private static double[] zipfCdf(int size, double exponent) {
+        double[] cdf = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < size; i++) cdf[i] /= sum;
+        return cdf;
+    }
+
+    /** Прогон целиком; true, если получен хотя бы один ключ. */
+    boolean run() throws IOException, InterruptedException {
+        for (int i = 0; i < concurrency; i++) {
+            Connection connection = new Connection();
+            connection.open(); // сервер недоступен — падаем сразу, а не ошибкой на каждый запрос
+            idle.add(connection);
+        }
+        System.out.printf("Load: %s concurrency=%d %s for %d s%n", spec != null ? spec : "default spec",
+                concurrency, rate > 0 ? "rate=" + rate + "/s" : "closed loop",
+                TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        long sent = 0;
+        try (var requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (rate > 0) {
+                // момент n-го запроса считаем от начала, а не шагом period: при rate > 1e9 целый
+                // шаг был бы 0, и расписание стояло бы на месте
+                double period = (double) TimeUnit.SECONDS.toNanos(1) / rate;
+                for (long intended = start; intended < deadline; intended = start + (long) (++sent * period)) {
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) LockSupport.parkNanos(wait);
+                    long scheduled = intended;
+                    requests.submit(() -> request(scheduled));
+                }
+            } else {
+                for (int i = 0; i < concurrency; i++) {
+                    requests.submit(() -> {
+                        while (System.nanoTime() < deadline) request(System.nanoTime());
+                    });
+                }
+            }
+        } // close() дожидается ответов на всё отправленное
+        long elapsed = System.nanoTime() - start;
+
+        Connection c;
+        while ((c = idle.poll()) != null) c.close();
+        report(elapsed, rate > 0 ? sent : -1);
+        return hits.count() + misses.count() > 0;
+    }
+
+    /** Один запрос; задержка считается от scheduled, включая ожидание свободного соединения. */
+    private void request(long scheduled) {
+        String name = names.next(ThreadLocalRandom.current());
+        Connection connection;
+        try {
+            connection = idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        Protocol.Frame frame;
+        try {
+            frame = connection.exchange(name);
+        } catch (IOException e) {
+            error(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            connection.close(); // переподключимся при следующем запросе
+            return;
+        } finally {
+            idle.add(connection);
+        }
+
+        long latency = System.nanoTime() - scheduled;
+        if (!frame.ok()) {
+            error(new String(frame.body(), StandardCharsets.US_ASCII).trim());
+            return;
+        }
+        (frame.hit() ? hits : misses).recordNanos(latency);
+        if (write) {
+            try {
+                Client.savePem(name, new String(frame.body(), StandardCharsets.US_ASCII));
+            } catch (IOException e) {
+                error("write: " + e.getMessage());
+            }
+        }
+    }
+
+    private void error(String message) {
+        errors.computeIfAbsent(message, m -> new LongAdder()).increment();
+    }
+
+    private void report(long elapsedNanos, long offered) {
+        double seconds = elapsedNanos / 1e9;
+        long done = hits.count() + misses.count();
+        System.out.printf("Done in %.1f s: %d keys (%.1f/s)%s%n", seconds, done, done / seconds,
+                offered >= 0 ? String.format(", offered %d (%.1f/s)", offered, offered / (durationNanos / 1e9)) : "");
+        System.out.printf("  hit   %.1f/s %s%n", hits.count() / seconds, hits.summary());
+        System.out.printf("  miss  %.1f/s %s%n", misses.count() / seconds, misses.summary());
+        errors.forEach((message, count) -> System.out.printf("  error x%d: %s%n", count.sum(), message));
+    }
+
+    /** Конвейерное соединение, по которому за раз идёт ровно один запрос; после ошибки открывается заново. */
+    private final class Connection {
+        private Socket socket;
+        private OutputStream out;
+        private InputStream in;
+
+        void open() throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            out = new BufferedOutputStream(socket.getOutputStream());
+            in = new BufferedInputStream(socket.getInputStream());
+            out.write(Protocol.PIPELINE);
+        }
+
+        Protocol.Frame exchange(String name) throws IOException {
+            if (socket == null) open();
+            Client.writeRequest(out, spec, name);
+            out.flush();
+            Protocol.Frame frame = Protocol.readFrame(in);
+            if (frame == null) throw new EOFException("Server closed the connection");
+            return frame;
+        }
+
+        void close() {
+            if (socket == null) return;
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // уже закрыто
+            }
+            socket = null;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package ru.nsu.fitkulin;
+
+import java.math.BigInteger;
+import java.security.*;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.RSAKeyGenParameterSpec;
+import java.security.spec.RSAPrivateCrtKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RSA-генератор, который ищет p и q сразу на всех ядрах: каждая подзадача берёт случайное окно
+ * нечётных кандидатов, отсеивает их малыми простыми и проверяет оставшихся Миллером — Рабином.
+ * Как только найдены два подходящих простых, остальные подзадачи бросают поиск.
+ * <p>
+ * Подставляется вместо JCA KeyPairGenerator (keygen.engine=parallel): задержка одного ключа падает
+ * примерно пропорционально числу свободных ядер, суммарная пропускная способность — нет.
+ */
+final class ParallelRsaKeyGenerator extends KeyPairGenerator {
+    private static final BigInteger E = RSAKeyGenParameterSpec.F4;
+    private static final int WINDOW = 2048;          // нечётных кандидатов в одном окне
+    private static final int[] SMALL_PRIMES = smallPrimes(4096);
+    private static final int CERTAINTY = 100;
+
+    private final ForkJoinPool pool;
+    private int keySize;
+    private SecureRandom random = new SecureRandom();
+
+    ParallelRsaKeyGenerator(ForkJoinPool pool, int keySize) {
+        super("RSA");
+        this.pool = pool;
+        initialize(keySize);
+    }
+
+    @Override
+    public void initialize(int keySize, SecureRandom random) {
+        if (keySize < 1024 || keySize % 2 != 0) {
+            throw new InvalidParameterException("RSA key size must be even and at least 1024, got " + keySize);
+        }
+        this.keySize = keySize;
+        if (random != null) this.random = random;
+    }
+
+    @Override
+    public void initialize(int keySize) {
+        initialize(keySize, null);
+    }
+
+    @Override
+    public KeyPair generateKeyPair() {
+        while (true) {
+            Search search = new Search(keySize / 2);
+            List<RangeSearch> ranges = new ArrayList<>();
+            for (int i = 0; i < pool.getParallelism(); i++) ranges.add(new RangeSearch(search, random));
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(ranges);
+                }
+            });
+            KeyPair pair = assemble(search.primes.get(0), search.primes.get(1));
+            if (pair != null) return pair;
+        }
+    }
+
+    /** Ключ из двух простых; null, если пара не годится (d слишком мал) — тогда ищем заново. */
+    private KeyPair assemble(BigInteger p, BigInteger q) {
+        if (p.compareTo(q) < 0) {
+            BigInteger t = p;
+            p = q;
+            q = t;
+        }
+        BigInteger n = p.multiply(q);
+        BigInteger p1 = p.subtract(BigInteger.ONE);
+        BigInteger q1 = q.subtract(BigInteger.ONE);
+        BigInteger lambda = p1.multiply(q1).divide(p1.gcd(q1));
+        BigInteger d = E.modInverse(lambda);
+        if (d.bitLength() <= keySize / 2) return null;
+
+        try {
+            KeyFactory factory = KeyFactory.getInstance("RSA");
+            PublicKey publicKey = factory.generatePublic(new RSAPublicKeySpec(n, E));
+            PrivateKey privateKey = factory.generatePrivate(new RSAPrivateCrtKeySpec(
+                    n, E, d, p, q, d.mod(p1), d.mod(q1), q.modInverse(p)));
+            return new KeyPair(publicKey, privateKey);
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new ProviderException("Cannot build RSA key", e);
+        }
+    }
+
+    /** Общее состояние одного поиска: найденные простые и флаг «хватит». */
+    private static final class Search {
+        final int bits;
+        final AtomicBoolean done = new AtomicBoolean();
+        final ReentrantLock lock = new ReentrantLock();
+        final List<BigInteger> primes = new ArrayList<>(2);
+
+        Search(int bits) {
+            this.bits = bits;
+        }
+
+        void offer(BigInteger prime) {
+            lock.lock();
+            try {
+                if (done.get()) return;
+                // FIPS 186-4: p и q не должны быть близки, иначе n раскладывается методом Ферма
+                if (!primes.isEmpty() && primes.get(0).subtract(prime).abs().bitLength() <= bits - 100) return;
+                primes.add(prime);
+                if (primes.size() == 2) done.set(true);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @SuppressWarnings("serial") // задачи ForkJoinPool не сериализуются
+    private static final class RangeSearch extends RecursiveAction {
+        private final Search search;
+        private final SecureRandom random;
+
+        RangeSearch(Search search, SecureRandom random) {
+            this.search = search;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            while (!search.done.get()) {
+                BigInteger prime = searchWindow();
+                if (prime != null) search.offer(prime);
+            }
+        }
+
+        /** Одно окно [base, base + 2 * WINDOW): решето, затем Миллер — Рабин по выжившим. */
+        private BigInteger searchWindow() {
+            int bits = search.bits;
+            // два старших бита — чтобы произведение точно имело keySize бит; младший — нечётность
+            BigInteger base = new BigInteger(bits, random).setBit(bits - 1).setBit(bits - 2).setBit(0);
+
+            boolean[] composite = new boolean[WINDOW];
+            for (int sp : SMALL_PRIMES) {
+                int r = base.mod(BigInteger.valueOf(sp)).intValue();
+                // base + 2i ≡ 0 (mod sp)  =>  i ≡ -r * 2^-1 (mod sp)
+                int i = (int) ((long) (sp - r) % sp * ((sp + 1) / 2) % sp);
+                for (; i < WINDOW; i += sp) composite[i] = true;
+            }
+
+            for (int i = 0; i < WINDOW; i++) {
+                if (composite[i]) continue;
+                if (search.done.get()) return null; // другой поток уже нашёл — бросаем
+                BigInteger candidate = base.add(BigInteger.valueOf(2L * i));
+                if (candidate.bitLength() != bits) return null;
+                if (!candidate.subtract(BigInteger.ONE).mod(E).equals(BigInteger.ZERO)
+                        && candidate.isProbablePrime(CERTAINTY)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static int[] smallPrimes(int limit) {
+        boolean[] sieve = new boolean[limit + 1];
+        List<Integer> primes = new ArrayList<>();
+        for (int i = 3; i <= limit; i += 2) {
+            if (sieve[i]) continue;
+            primes.add(i);
+            for (long j = (long) i * i; j <= limit; j += 2L * i) sieve[(int) j] = true;
+        }
+        return primes.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
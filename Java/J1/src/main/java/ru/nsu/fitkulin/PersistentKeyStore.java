@@ -0,0 +1,212 @@
+package ru.nsu.fitkulin;
+
+import ru.nsu.fitkulin.DTO.ClientKey;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Хранилище выданных ключей на диске: два append-only файла.
+ * keys.dat — записи [len][name, alg, PKCS#8, X.509 SPKI, сертификат DER],
+ * keys.idx — пары [name, offset в keys.dat], более поздняя запись имени побеждает.
+ * <p>
+ * При старте индекс читается в фоне, сервер принимает запросы сразу; сами ключи
+ * поднимаются с диска только при промахе кэша. Запись идёт отдельным потоком.
+ * Оборванная последняя запись индекса (упали посреди записи) отрезается, прежде чем
+ * писатель допишет в индекс что-то новое: иначе все следующие записи съехали бы.
+ */
+final class PersistentKeyStore implements Closeable {
+    private final FileChannel data;
+    private final DataOutputStream indexOut;
+    private final ConcurrentMap<String, Long> index = new ConcurrentHashMap<>();
+    /** Имена, записанные после открытия: их запись новее любой из индекса на диске. */
+    private final Set<String> writtenAfterOpen = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<Void> indexReady;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "key-store-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+
+    PersistentKeyStore(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path indexPath = dir.resolve("keys.idx");
+        this.data = FileChannel.open(dir.resolve("keys.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // снимок длины: всё, что допишем после открытия, и так попадёт в index напрямую
+        long indexLength = Files.exists(indexPath) ? Files.size(indexPath) : 0;
+        this.indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        this.indexReady = CompletableFuture.runAsync(() -> replayIndex(indexPath, indexLength), readers);
+    }
+
+    private void replayIndex(Path indexPath, long length) {
+        long complete = 0; // конец последней целой записи
+        try (BoundedInputStream bounded = new BoundedInputStream(
+                new BufferedInputStream(Files.newInputStream(indexPath)), length);
+             DataInputStream in = new DataInputStream(bounded)) {
+            while (true) {
+                String name = in.readUTF();
+                long offset = in.readLong();
+                complete = bounded.consumed();
+                // более поздняя запись побеждает; записанное после старта новее всего, что на диске
+                index.compute(name, (k, old) -> writtenAfterOpen.contains(k) ? old : offset);
+            }
+        } catch (EOFException e) {
+            if (complete < length) truncate(indexPath, complete);
+        } catch (IOException e) {
+            System.err.println("Key store index replay failed: " + e.getMessage());
+        }
+    }
+
+    private static void truncate(Path indexPath, long length) {
+        try (FileChannel ch = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+            ch.truncate(length);
+            System.err.println("Key store: dropped torn index tail after byte " + length);
+        } catch (IOException e) {
+            System.err.println("Key store: cannot truncate torn index tail: " + e.getMessage());
+        }
+    }
+
+    /** Поиск на диске в фоне; null, если имени нет или сертификат уже истёк. */
+    CompletableFuture<ClientKey> lookup(String name) {
+        return indexReady.thenApplyAsync(ignored -> {
+            Long offset = index.get(name);
+            if (offset == null) return null;
+            try {
+                ClientKey key = read(offset);
+                return key.certificate().getNotAfter().getTime() > System.currentTimeMillis() ? key : null;
+            } catch (IOException | GeneralSecurityException e) {
+                System.err.println("Key store: cannot read " + name + ": " + e.getMessage());
+                return null;
+            }
+        }, readers);
+    }
+
+    /** Асинхронно дописать ключ в конец лога. */
+    void append(String name, ClientKey key) {
+        writer.execute(() -> {
+            try {
+                ByteArrayOutputStream buf = new ByteArrayOutputStream(16 * 1024);
+                DataOutputStream out = new DataOutputStream(buf);
+                out.writeInt(0); // длина, заполним ниже
+                out.writeUTF(name);
+                out.writeUTF(key.publicKey().getAlgorithm());
+                writeBytes(out, key.privateKey().getEncoded());
+                writeBytes(out, key.publicKey().getEncoded());
+                writeBytes(out, key.certificate().getEncoded());
+                ByteBuffer record = ByteBuffer.wrap(buf.toByteArray());
+                record.putInt(0, record.remaining() - Integer.BYTES);
+
+                long offset = data.size();
+                while (record.hasRemaining()) data.write(record, offset + record.position());
+                writtenAfterOpen.add(name); // до put: replay, увидев имя, старое смещение не вернёт
+                index.put(name, offset);
+
+                indexReady.join(); // хвост индекса мог быть оборван — дописываем после его обрезки
+                indexOut.writeUTF(name);
+                indexOut.writeLong(offset);
+                indexOut.flush();
+            } catch (IOException | GeneralSecurityException e) {
+                System.err.println("Key store: cannot persist " + name + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private ClientKey read(long offset) throws IOException, GeneralSecurityException {
+        ByteBuffer len = ByteBuffer.allocate(Integer.BYTES);
+        readFully(len, offset);
+        ByteBuffer body = ByteBuffer.allocate(len.getInt(0));
+        readFully(body, offset + Integer.BYTES);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body.array()));
+        in.readUTF(); // имя
+        String algorithm = in.readUTF();
+        KeyFactory kf = KeyFactory.getInstance(algorithm);
+        PrivateKey privateKey = kf.generatePrivate(new PKCS8EncodedKeySpec(readBytes(in)));
+        PublicKey publicKey = kf.generatePublic(new X509EncodedKeySpec(readBytes(in)));
+        X509Certificate cert = (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(readBytes(in)));
+        return new ClientKey(privateKey, publicKey, cert, Pem.bundle(privateKey, publicKey, cert));
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (data.read(buf, position + buf.position()) < 0) throw new EOFException("Truncated record");
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    int indexedKeys() { return index.size(); }
+
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) writer.shutdownNow();
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        readers.shutdown();
+        indexOut.close();
+        data.force(true);
+        data.close();
+    }
+
+    /**
+     * Читает не больше limit байт — чтобы replay не гонялся за дописываемым хвостом индекса.
+     * Стоит поверх буфера, поэтому consumed() — ровно столько, сколько разобрал DataInputStream.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private final long limit;
+        private long left;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.left = limit;
+        }
+
+        long consumed() { return limit - left; }
+
+        @Override public int read() throws IOException {
+            if (left <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) left--;
+            return b;
+        }
+
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            if (left <= 0) return -1;
+            int n = super.read(b, off, (int) Math.min(len, left));
+            if (n > 0) left -= n;
+            return n;
+        }
+    }
+}
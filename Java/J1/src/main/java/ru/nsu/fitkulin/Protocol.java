@@ -0,0 +1,76 @@
+package ru.nsu.fitkulin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Проводной протокол.
+ * <p>
+ * Обычный режим: клиент шлёт "[spec 0x1F] name \0", сервер отвечает PEM-ответом
+ * (или строкой "ERROR ...") и закрывает соединение.
+ * <p>
+ * Конвейерный режим: первым байтом идёт PIPELINE, затем сколько угодно запросов
+ * "[spec 0x1F] name \0"; конец запросов — shutdownOutput у клиента. Ответы приходят
+ * по мере готовности, в любом порядке, кадрами "OK|ERROR spec length source name\n" + length байт
+ * (PEM-ответ или текст ошибки). source — "hit", если ключ был готов в момент запроса, "miss", если
+ * его пришлось ждать, "-" для ошибок разбора.
+ * <p>
+ * Пересылка между узлами кластера: первым байтом FORWARD, затем "адрес-клиента \0 [spec 0x1F] name \0".
+ * Узел отвечает одним кадром, как в конвейерном режиме, и закрывает соединение; сам он такой
+ * запрос дальше не пересылает.
+ */
+final class Protocol {
+    static final int PIPELINE = 0x01;
+    static final int FORWARD = 0x02;
+    static final String OK = "OK";
+    static final String ERROR = "ERROR";
+    static final String HIT = "hit";
+    static final String MISS = "miss";
+    private static final int MAX_HEADER = 8192;
+
+    private Protocol() {}
+
+    record Frame(String status, String spec, String source, String name, byte[] body) {
+        boolean ok() { return OK.equals(status); }
+
+        boolean hit() { return HIT.equals(source); }
+    }
+
+    /** Имя в заголовке кадра: управляющие символы заменяем, чтобы не порвать строку. */
+    static String tag(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(c < 0x20 ? '?' : c);
+        }
+        return sb.toString();
+    }
+
+    static byte[] frameHeader(String status, String spec, int length, String source, String name) {
+        return (status + " " + spec + " " + length + " " + source + " " + tag(name) + "\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Следующий кадр или null, если сервер закрыл соединение между кадрами. */
+    static Frame readFrame(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                if (line.size() == 0) return null;
+                throw new EOFException("Connection closed inside frame header");
+            }
+            line.write(b);
+            if (line.size() > MAX_HEADER) throw new IOException("Frame header too long");
+        }
+        String[] parts = line.toString(StandardCharsets.US_ASCII).split(" ", 5);
+        if (parts.length < 5) throw new IOException("Malformed frame header: " + line);
+        int length = Integer.parseInt(parts[2]);
+        byte[] body = in.readNBytes(length);
+        if (body.length < length) throw new EOFException("Connection closed inside frame body");
+        return new Frame(parts[0], parts[1], parts[3], parts[4], body);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.nsu.fitkulin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Настройки сервера из config.txt (classpath).
+ * Любой ключ можно переопределить системным свойством: -Dpool.highWatermark=16
+ */
+final class ServerConfig {
+    private final Properties props;
+
+    private ServerConfig(Properties props) {
+        this.props = props;
+    }
+
+    static ServerConfig load(String resource) {
+        Properties props = new Properties();
+        try (InputStream fis = ServerConfig.class.getClassLoader().getResourceAsStream(resource)) {
+            if (fis != null) props.load(fis);
+        } catch (IOException ignored) {
+            // пустой конфиг — работаем на значениях по умолчанию
+        }
+        props.putIfAbsent("issuer.name", "CN=FATSUN");
+        return new ServerConfig(props);
+    }
+
+    String getString(String key, String def) {
+        return System.getProperty(key, props.getProperty(key, def));
+    }
+
+    int getInt(String key, int def) {
+        String v = getString(key, null);
+        if (v == null || v.isBlank()) return def;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Config key " + key + " must be an integer, got: " + v);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.nsu.fitkulin;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики и гистограммы сервера: для JMX и текстового эндпоинта (формат Prometheus).
+ * Горячий путь только пишет в LongAdder/гистограммы, всё остальное считается при чтении.
+ */
+final class ServerMetrics implements ServerMetricsMXBean {
+    final LatencyHistogram keygen = new LatencyHistogram();
+    final LatencyHistogram sign = new LatencyHistogram();
+    final LatencyHistogram serialize = new LatencyHistogram();
+    final LatencyHistogram request = new LatencyHistogram();
+
+    private final LongAdder requests = new LongAdder();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder workerBusyNanos = new LongAdder();
+
+    private final TaskScheduler queue;
+    private final KeyCache cache;
+    private final Map<?, KeyPool> pools;
+    private final ClusterRouter cluster; // null вне кластера
+    private final int workers;
+    private final long startNanos = System.nanoTime();
+
+    ServerMetrics(TaskScheduler queue, KeyCache cache, Map<?, KeyPool> pools, ClusterRouter cluster, int workers) {
+        this.queue = queue;
+        this.cache = cache;
+        this.pools = pools;
+        this.cluster = cluster;
+        this.workers = workers;
+    }
+
+    void connectionOpened() { activeConnections.incrementAndGet(); }
+
+    void connectionClosed() { activeConnections.decrementAndGet(); }
+
+    void requestServed(long startNanos) {
+        requests.increment();
+        request.recordNanos(System.nanoTime() - startNanos);
+    }
+
+    void workerBusy(long nanos) { workerBusyNanos.add(nanos); }
+
+    @Override public int getQueueDepth() { return queue.depth(); }
+
+    @Override public long getQueueRejected() { return queue.rejected(); }
+
+    @Override public long getQueueDropped() { return queue.dropped(); }
+
+    @Override public int getActiveConnections() { return activeConnections.get(); }
+
+    @Override public long getRequests() { return requests.sum(); }
+
+    @Override public long getCacheHits() { return cache.hits(); }
+
+    @Override public long getCacheCoalesced() { return cache.coalesced(); }
+
+    @Override public long getCacheMisses() { return cache.misses(); }
+
+    @Override public long getCacheEvictions() { return cache.evictions(); }
+
+    @Override public int getCacheSize() { return cache.size(); }
+
+    @Override public double getPoolHitRate() {
+        long hits = 0;
+        long total = 0;
+        for (KeyPool pool : pools.values()) {
+            hits += pool.hits();
+            total += pool.hits() + pool.misses();
+        }
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /** Доля времени, которую генераторы с момента старта были заняты (0..1). */
+    @Override public double getWorkerUtilization() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0.0 : Math.min(1.0, (double) workerBusyNanos.sum() / ((double) elapsed * workers));
+    }
+
+    @Override public long getForwarded() { return cluster != null ? cluster.forwarded() : 0; }
+
+    @Override public long getForwardFailovers() { return cluster != null ? cluster.failovers() : 0; }
+
+    @Override public long getKeygenP99Micros() { return keygen.percentile(99); }
+
+    @Override public long getSignP99Micros() { return sign.percentile(99); }
+
+    @Override public long getSerializeP99Micros() { return serialize.percentile(99); }
+
+    @Override public long getRequestP99Micros() { return request.percentile(99); }
+
+    /** Текст для /metrics. */
+    String render() {
+        StringBuilder sb = new StringBuilder(2048);
+        gauge(sb, "keygen_queue_depth", getQueueDepth());
+        gauge(sb, "keygen_queue_rejected_total", getQueueRejected());
+        gauge(sb, "keygen_queue_dropped_total", getQueueDropped());
+        gauge(sb, "keygen_active_connections", getActiveConnections());
+        gauge(sb, "keygen_requests_total", getRequests());
+        gauge(sb, "keygen_cache_hits_total", getCacheHits());
+        gauge(sb, "keygen_cache_coalesced_total", getCacheCoalesced());
+        gauge(sb, "keygen_cache_misses_total", getCacheMisses());
+        gauge(sb, "keygen_cache_evictions_total", getCacheEvictions());
+        gauge(sb, "keygen_cache_size", getCacheSize());
+        gauge(sb, "keygen_pool_hit_ratio", getPoolHitRate());
+        gauge(sb, "keygen_worker_utilization", getWorkerUtilization());
+        gauge(sb, "keygen_forwarded_total", getForwarded());
+        gauge(sb, "keygen_forward_failovers_total", getForwardFailovers());
+        histogram(sb, "keygen", keygen);
+        histogram(sb, "sign", sign);
+        histogram(sb, "serialize", serialize);
+        histogram(sb, "request", request);
+        return sb.toString();
+    }
+
+    private static void gauge(StringBuilder sb, String name, Number value) {
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void histogram(StringBuilder sb, String stage, LatencyHistogram h) {
+        String[] labels = {"0.5", "0.9", "0.99", "0.999"};
+        double[] percentiles = {50, 90, 99, 99.9};
+        for (int i = 0; i < labels.length; i++) {
+            sb.append("keygen_latency_us{stage=\"").append(stage).append("\",quantile=\"")
+                    .append(labels[i]).append("\"} ").append(h.percentile(percentiles[i])).append('\n');
+        }
+        sb.append("keygen_latency_us_count{stage=\"").append(stage).append("\"} ").append(h.count()).append('\n');
+    }
+}
@@ -0,0 +1,40 @@
+package ru.nsu.fitkulin;
+
+/** Метрики сервера в JMX (jconsole / VisualVM: ru.nsu.fitkulin:type=KeygenServer). */
+public interface ServerMetricsMXBean {
+    int getQueueDepth();
+
+    long getQueueRejected();
+
+    long getQueueDropped();
+
+    int getActiveConnections();
+
+    long getRequests();
+
+    long getCacheHits();
+
+    long getCacheCoalesced();
+
+    long getCacheMisses();
+
+    long getCacheEvictions();
+
+    int getCacheSize();
+
+    double getPoolHitRate();
+
+    double getWorkerUtilization();
+
+    long getKeygenP99Micros();
+
+    long getSignP99Micros();
+
+    long getSerializeP99Micros();
+
+    long getRequestP99Micros();
+
+    long getForwarded();
+
+    long getForwardFailovers();
+}
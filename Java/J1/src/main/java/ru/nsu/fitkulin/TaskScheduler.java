@@ -0,0 +1,146 @@
+package ru.nsu.fitkulin;
+
+import ru.nsu.fitkulin.DTO.Priority;
+import ru.nsu.fitkulin.DTO.Task;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Очередь задач генерации перед пулом воркеров.
+ * Классы приоритета обслуживаются строго по старшинству, внутри класса — по кругу
+ * между клиентами (по адресу), так что один клиент с потоком новых имён не задерживает остальных.
+ * Переполненная очередь сразу отказывает, просроченные и уже никому не нужные задачи выбрасываются.
+ */
+final class TaskScheduler {
+    private final int maxDepth;
+    private final int maxPerClient;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    // порядок вставки в LinkedHashMap = очередь клиентов для round-robin
+    private final EnumMap<Priority, LinkedHashMap<String, ArrayDeque<Task>>> classes = new EnumMap<>(Priority.class);
+    private int depth;
+    private long rejected;
+    private long dropped;
+
+    TaskScheduler(int maxDepth, int maxPerClient) {
+        this.maxDepth = maxDepth > 0 ? maxDepth : Integer.MAX_VALUE;
+        this.maxPerClient = maxPerClient > 0 ? maxPerClient : Integer.MAX_VALUE;
+        for (Priority p : Priority.values()) classes.put(p, new LinkedHashMap<>());
+    }
+
+    /** false — очередь (общая или этого клиента) заполнена, задача не принята. */
+    boolean offer(Task task) {
+        lock.lock();
+        try {
+            ArrayDeque<Task> own = classes.get(task.priority()).get(task.owner());
+            if (depth >= maxDepth || (own != null && own.size() >= maxPerClient)) {
+                rejected++;
+                return false;
+            }
+            classes.get(task.priority()).computeIfAbsent(task.owner(), k -> new ArrayDeque<>()).addLast(task);
+            depth++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Убрать ещё не взятую задачу (последний клиент ушёл). */
+    void remove(Task task) {
+        lock.lock();
+        try {
+            LinkedHashMap<String, ArrayDeque<Task>> clients = classes.get(task.priority());
+            ArrayDeque<Task> tasks = clients.get(task.owner());
+            if (tasks != null && tasks.remove(task)) {
+                depth--;
+                dropped++;
+                if (tasks.isEmpty()) clients.remove(task.owner());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Следующая живая задача или null по таймауту. */
+    Task poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        List<Task> expired = new ArrayList<>();
+        Task next;
+        lock.lockInterruptibly();
+        try {
+            while ((next = nextLive(expired)) == null) {
+                if (nanos <= 0) break;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+        // завершаем вне замка: на future висят продолжения
+        for (Task t : expired) {
+            t.client().completeExceptionally(new TimeoutException("Deadline expired while queued"));
+        }
+        return next;
+    }
+
+    private Task nextLive(List<Task> expired) {
+        long now = System.nanoTime();
+        for (LinkedHashMap<String, ArrayDeque<Task>> clients : classes.values()) {
+            while (!clients.isEmpty()) {
+                Iterator<Map.Entry<String, ArrayDeque<Task>>> it = clients.entrySet().iterator();
+                Map.Entry<String, ArrayDeque<Task>> first = it.next();
+                ArrayDeque<Task> tasks = first.getValue();
+                Task t = tasks.pollFirst();
+                depth--;
+                it.remove();
+                if (!tasks.isEmpty()) clients.put(first.getKey(), tasks); // в конец круга
+
+                if (t.client().isDone()) {          // отменена или уже выполнена иначе
+                    dropped++;
+                } else if (t.expired(now)) {
+                    dropped++;
+                    expired.add(t);
+                } else {
+                    return t;
+                }
+            }
+        }
+        return null;
+    }
+
+    int depth() {
+        lock.lock();
+        try {
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long rejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long dropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override public String toString() {
+        return "TaskScheduler[depth=" + depth() + ", rejected=" + rejected() + ", dropped=" + dropped() + "]";
+    }
+}
@@ -0,0 +1,55 @@
+package ru.nsu.fitkulin;
+
+import ru.nsu.fitkulin.DTO.PendingKey;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/** Прежнее поведение: ConcurrentHashMap без вытеснения, только истечение по notAfter. */
+final class UnboundedKeyCache implements KeyCache {
+    private final ConcurrentMap<String, PendingKey> map = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @Override
+    public PendingKey computeIfAbsent(String name, Function<String, PendingKey> loader) {
+        PendingKey existing = map.get(name);
+        if (existing != null && KeyCache.isExpired(existing, System.currentTimeMillis())
+                && map.remove(name, existing)) {
+            expirations.increment();
+        }
+        boolean[] created = new boolean[1];
+        PendingKey future = map.computeIfAbsent(name, key -> {
+            created[0] = true;
+            return loader.apply(key);
+        });
+        if (created[0]) misses.increment();
+        else if (future.isDone()) hits.increment();
+        else coalesced.increment();
+        return future;
+    }
+
+    @Override
+    public boolean remove(String name, PendingKey future) {
+        return map.remove(name, future);
+    }
+
+    @Override public int size() { return map.size(); }
+
+    @Override public long hits() { return hits.sum(); }
+
+    @Override public long coalesced() { return coalesced.sum(); }
+
+    @Override public long misses() { return misses.sum(); }
+
+    @Override public long evictions() { return expirations.sum(); }
+
+    @Override public String toString() {
+        return String.format("KeyCache[unbounded, size=%d, hits=%d, coalesced=%d, misses=%d, expired=%d]",
+                size(), hits(), coalesced(), misses(), evictions());
+    }
+}
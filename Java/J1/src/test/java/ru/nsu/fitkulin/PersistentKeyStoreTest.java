@@ -0,0 +1,92 @@
+package ru.nsu.fitkulin;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.nsu.fitkulin.DTO.ClientKey;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentKeyStoreTest {
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static KeyPair pair;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void generateKey() throws Exception {
+        KeyPairGenerator gen = KeyPairGenerator.getInstance("RSA");
+        gen.initialize(1024);
+        pair = gen.generateKeyPair();
+    }
+
+    /** Самоподписанный сертификат, истекающий через notAfterDays дней (в прошлом — если < 0). */
+    private static ClientKey key(String name, int notAfterDays) throws Exception {
+        long now = System.currentTimeMillis();
+        X509v3CertificateBuilder builder = new X509v3CertificateBuilder(
+                new X500Name("CN=" + name), BigInteger.valueOf(now), new Date(now - 2 * DAY),
+                new Date(now + notAfterDays * DAY), new X500Name("CN=" + name),
+                SubjectPublicKeyInfo.getInstance(pair.getPublic().getEncoded()));
+        X509Certificate cert = new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(pair.getPrivate())));
+        return new ClientKey(pair.getPrivate(), pair.getPublic(), cert,
+                Pem.bundle(pair.getPrivate(), pair.getPublic(), cert));
+    }
+
+    @Test
+    void laterRecordWinsAfterRestart() throws Exception {
+        ClientKey expired = key("alice", -1);
+        ClientKey reissued = key("alice", 365);
+        try (PersistentKeyStore store = new PersistentKeyStore(dir)) {
+            store.append("alice", expired);
+            store.append("alice", reissued);
+        }
+
+        try (PersistentKeyStore store = new PersistentKeyStore(dir)) {
+            ClientKey found = store.lookup("alice").get();
+            assertNotNull(found, "the re-issued record must win over the expired one");
+            assertEquals(reissued.certificate(), found.certificate());
+            assertEquals(1, store.indexedKeys());
+        }
+    }
+
+    @Test
+    void tornIndexTailIsCutBeforeNewRecords() throws Exception {
+        try (PersistentKeyStore store = new PersistentKeyStore(dir)) {
+            store.append("alice", key("alice", 365));
+        }
+        Path indexPath = dir.resolve("keys.idx");
+        long complete = Files.size(indexPath);
+        try (OutputStream out = Files.newOutputStream(indexPath, StandardOpenOption.APPEND)) {
+            out.write(new byte[] {0, 3, 'b', 'o'}); // writeUTF("bob") оборван посередине
+        }
+
+        try (PersistentKeyStore store = new PersistentKeyStore(dir)) {
+            store.append("carol", key("carol", 365));
+        }
+        assertTrue(Files.size(indexPath) > complete);
+
+        try (PersistentKeyStore store = new PersistentKeyStore(dir)) {
+            assertNotNull(store.lookup("alice").get());
+            assertNotNull(store.lookup("carol").get(), "a record appended after the torn one must be readable");
+            assertNull(store.lookup("bob").get());
+            assertEquals(2, store.indexedKeys());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.nsu.fitkulin.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Вставка в начало по одной строке (pushFront / add(0, …)) без сортировщиков: одна нить и четыре
+// нити на общий список. Одно измерение — BATCH вставок каждой нитью в свежий список, так что
+// память не растёт от итерации к итерации.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = InsertBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = InsertBenchmark.BATCH)
+public class InsertBenchmark {
+    static final int BATCH = 50_000;
+
+    @Param({"locking", "lock-free", "arena", "synchronized", "odd-even"})
+    public String impl;
+
+    private ListTarget target;
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void input() {
+        lines = ListTarget.input("random", 1024, 1).toArray(new String[0]);
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        target = ListTarget.create(impl, "bubble");
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void single(Cursor c) {
+        target.insert(lines[c.i++ & 1023]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void contended(Cursor c) {
+        target.insert(lines[c.i++ & 1023]);
+    }
+}
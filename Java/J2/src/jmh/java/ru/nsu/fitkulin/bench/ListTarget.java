@@ -0,0 +1,61 @@
+package ru.nsu.fitkulin.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import ru.nsu.fitkulin.own.OwnTarget;
+import ru.nsu.fitkulin.standart.StandartTarget;
+
+// Общий вид всех списков J2 для бенчмарков: сами списки package-private, поэтому у каждого пакета
+// своя обёртка. Сортировщики запускаются с нулевыми задержками.
+// Реализации: locking, lock-free, arena — own; synchronized, odd-even — standart.
+public interface ListTarget {
+    void insert(String s);                   // pushFront / add(0, …) по одной строке
+
+    void insertAll(List<String> front);      // пачкой, как Main при потоковом вводе
+
+    List<String> snapshot();
+
+    void startSorters(int n);
+
+    void stopSorters() throws InterruptedException;
+
+    long steps();
+
+    default boolean isSorted() {
+        List<String> s = snapshot();
+        for (int i = 1; i < s.size(); i++) {
+            if (s.get(i - 1).compareTo(s.get(i)) > 0) return false;
+        }
+        return true;
+    }
+
+    // odd-even бывает только пузырьком — как и в standart.Main
+    static ListTarget create(String impl, String engine) {
+        return switch (impl) {
+            case "locking", "lock-free", "arena" -> new OwnTarget(impl, engine);
+            case "synchronized", "odd-even" -> new StandartTarget(impl, engine);
+            default -> throw new IllegalArgumentException("Unknown impl: " + impl);
+        };
+    }
+
+    // n строк по 12 символов: random, reversed (по убыванию) или sorted
+    static List<String> input(String order, int n, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        List<String> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            char[] cs = new char[12];
+            for (int j = 0; j < cs.length; j++) cs[j] = (char) ('a' + rnd.nextInt(26));
+            out.add(new String(cs));
+        }
+        switch (order) {
+            case "random" -> { }
+            case "sorted" -> Collections.sort(out);
+            case "reversed" -> out.sort(Collections.reverseOrder());
+            default -> throw new IllegalArgumentException("Unknown order: " + order);
+        }
+        return out;
+    }
+}
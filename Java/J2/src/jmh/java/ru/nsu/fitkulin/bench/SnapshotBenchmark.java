@@ -0,0 +1,54 @@
+package ru.nsu.fitkulin.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Задержка печати: снимок списка (и он же, собранный в текст, как Main.print, но без вывода),
+// пока сортировщики работают. sorters=0 — та же операция без конкуренции, для сравнения.
+// Список заново заполняется на каждой итерации, как в SorterStepsBenchmark: отсортировав его,
+// сортировщики засыпают, и дальше снимок мерился бы уже без конкуренции. Итерации по 2 с:
+// odd-even с четырьмя сортировщиками доводит 20000 строк до порядка за ~15 с на одном ядре,
+// на нескольких — быстрее, а 10 с по умолчанию могли бы закончиться уже на спящих.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+public class SnapshotBenchmark {
+    private static final int SIZE = 20_000;
+
+    @Param({"locking", "lock-free", "arena", "synchronized", "odd-even"})
+    public String impl;
+
+    @Param({"0", "4"})
+    public int sorters;
+
+    private ListTarget target;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        target = ListTarget.create(impl, "bubble");
+        target.insertAll(ListTarget.input("reversed", SIZE, 3));
+        target.startSorters(sorters);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        target.stopSorters();
+    }
+
+    @Benchmark
+    public List<String> snapshot() {
+        return target.snapshot();
+    }
+
+    @Benchmark
+    public String format() {
+        List<String> snapshot = target.snapshot();
+        StringBuilder out = new StringBuilder(snapshot.size() * 16 + 128);
+        for (String s : snapshot) out.append(s).append('\n');
+        return out.toString();
+    }
+}
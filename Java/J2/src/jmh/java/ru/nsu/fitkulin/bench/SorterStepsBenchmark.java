@@ -0,0 +1,48 @@
+package ru.nsu.fitkulin.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Шаги пузырька в секунду при 1..8 сортировщиках. Список — 20000 строк по убыванию: столько
+// перестановок, что за итерацию он не успевает отсортироваться и сортировщики не засыпают.
+// Нить JMH только ждёт, шаги идут в счётчик steps (AuxCounters, шагов в секунду).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SorterStepsBenchmark {
+    private static final int SIZE = 20_000;
+
+    @Param({"locking", "lock-free", "arena", "synchronized", "odd-even"})
+    public String impl;
+
+    @Param({"1", "2", "4", "8"})
+    public int sorters;
+
+    private ListTarget target;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        target = ListTarget.create(impl, "bubble");
+        target.insertAll(ListTarget.input("reversed", SIZE, 2));
+        target.startSorters(sorters);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        target.stopSorters();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Steps {
+        public long steps;
+    }
+
+    @Benchmark
+    public void steps(Steps counter) throws InterruptedException {
+        long before = target.steps();
+        Thread.sleep(10);
+        counter.steps += target.steps() - before;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.nsu.fitkulin.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Время от запуска сортировщиков до отсортированного списка из SIZE строк.
+// Проверка — снимок раз в миллисекунду, так что точность ~1 мс. Список и движок — один параметр
+// «список/движок»: odd-even бывает только пузырьком (как и в standart.Main), и в полной матрице
+// его сочетания с merge только падали бы в setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class TimeToSortedBenchmark {
+    private static final int SIZE = 2_000;
+
+    @Param({"locking/bubble", "locking/merge", "lock-free/bubble", "lock-free/merge", "arena/bubble", "arena/merge",
+            "synchronized/bubble", "synchronized/merge", "odd-even/bubble"})
+    public String list;
+
+    @Param({"random", "reversed", "sorted"})
+    public String order;
+
+    @Param({"1", "4"})
+    public int sorters;
+
+    private ListTarget target;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        String[] implEngine = list.split("/");
+        target = ListTarget.create(implEngine[0], implEngine[1]);
+        target.insertAll(ListTarget.input(order, SIZE, 4));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws InterruptedException {
+        target.stopSorters();
+    }
+
+    @Benchmark
+    public void untilSorted() throws InterruptedException {
+        target.startSorters(sorters);
+        while (!target.isSorted()) Thread.sleep(1);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.nsu.fitkulin.own;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ru.nsu.fitkulin.bench.ListTarget;
+import ru.nsu.fitkulin.stats.SortStats;
+
+// Списки own для бенчмарков: LockingSinglyLinkedList, LockFreeLinkedList, ArenaLinkedList.
+public final class OwnTarget implements ListTarget {
+    private final SortableList list;
+    private final SortEngine engine;
+    private final SortStats stats;
+    private final List<BubbleSorter> sorters = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    public OwnTarget(String impl, String engine) {
+        this.list = switch (impl) {
+            case "locking" -> new LockingSinglyLinkedList();
+            case "lock-free" -> new LockFreeLinkedList();
+            case "arena" -> new ArenaLinkedList();
+            default -> throw new IllegalArgumentException("Unknown own impl: " + impl);
+        };
+        this.engine = SortEngine.parse(engine);
+        this.stats = new SortStats(list::snapshot, list::size, 0);
+    }
+
+    @Override public void insert(String s) { list.pushFront(s); }
+
+    @Override public void insertAll(List<String> front) { engine.insertAll(list, front); }
+
+    @Override public List<String> snapshot() { return list.snapshot(); }
+
+    @Override public void startSorters(int n) {
+        for (int i = 0; i < n; i++) {
+            BubbleSorter r = new BubbleSorter(list, engine, 0, 0, stats);
+            Thread t = new Thread(r, "sorter-" + i);
+            sorters.add(r);
+            threads.add(t);
+            t.start();
+        }
+    }
+
+    @Override public void stopSorters() throws InterruptedException {
+        for (BubbleSorter r : sorters) r.stop();
+        for (Thread t : threads) t.interrupt();
+        for (Thread t : threads) t.join();
+        sorters.clear();
+        threads.clear();
+    }
+
+    @Override public long steps() { return stats.comparisons(); }
+}
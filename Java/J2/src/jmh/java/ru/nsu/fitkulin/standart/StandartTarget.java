@@ -0,0 +1,76 @@
+package ru.nsu.fitkulin.standart;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ru.nsu.fitkulin.bench.ListTarget;
+import ru.nsu.fitkulin.sort.SortProgress;
+import ru.nsu.fitkulin.stats.SortStats;
+
+// Списки standart для бенчмарков: synchronizedList с движком и StripedArray с чётно-нечётной сортировкой.
+public final class StandartTarget implements ListTarget {
+    private final boolean oddEven;
+    private final List<String> base = new ArrayList<>();
+    private final List<String> list = Collections.synchronizedList(base);
+    private final SortProgress progress = new SortProgress();
+    private final StripedArray striped = new StripedArray(progress);
+    private final SortEngine engine;
+    private final SortStats stats;
+    private final List<Runnable> stoppers = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    public StandartTarget(String impl, String engine) {
+        this.oddEven = switch (impl) {
+            case "synchronized" -> false;
+            case "odd-even" -> true;
+            default -> throw new IllegalArgumentException("Unknown standart impl: " + impl);
+        };
+        this.engine = SortEngine.parse(engine);
+        if (oddEven && this.engine != SortEngine.BUBBLE) {
+            throw new UnsupportedOperationException("odd-even runs only as bubble, not " + engine);
+        }
+        this.stats = new SortStats(this::snapshot, oddEven ? striped::size : list::size, 0);
+    }
+
+    @Override public void insert(String s) { insertAll(List.of(s)); }
+
+    @Override public void insertAll(List<String> front) {
+        if (oddEven) striped.pushFrontAll(front);
+        else engine.insert(list, progress, front);
+    }
+
+    @Override public List<String> snapshot() {
+        if (oddEven) return striped.snapshot();
+        synchronized (list) { return new ArrayList<>(base); }
+    }
+
+    @Override public void startSorters(int n) {
+        OddEvenPhases phases = new OddEvenPhases(n, progress);
+        for (int i = 0; i < n; i++) {
+            Runnable r;
+            if (oddEven) {
+                OddEvenSorter s = new OddEvenSorter(striped, phases, i, n, 0, 0, stats);
+                stoppers.add(s::stop);
+                r = s;
+            } else {
+                ArrayBubbleSorter s = new ArrayBubbleSorter(list, engine, progress, 0, 0, stats);
+                stoppers.add(s::stop);
+                r = s;
+            }
+            Thread t = new Thread(r, "sorter-" + i);
+            threads.add(t);
+            t.start();
+        }
+    }
+
+    @Override public void stopSorters() throws InterruptedException {
+        for (Runnable stop : stoppers) stop.run();
+        for (Thread t : threads) t.interrupt();
+        for (Thread t : threads) t.join();
+        stoppers.clear();
+        threads.clear();
+    }
+
+    @Override public long steps() { return stats.comparisons(); }
+}
@@ -0,0 +1,52 @@
+package ru.nsu.fitkulin.bulk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+// Загрузка файла (--load) в фоновой нити, пока Main читает stdin и печатает как обычно.
+// Если файл по оценке не влезает в бюджет кучи — список не трогаем, а сортируем файл на диске.
+public final class BulkLoad {
+    public static final int BATCH_LINES = 8192;
+    // байт кучи на байт файла: String + узел списка на строку в 60–80 символов
+    private static final long HEAP_PER_FILE_BYTE = 3;
+
+    private BulkLoad() {}
+
+    public static long defaultBudgetBytes() { return Runtime.getRuntime().maxMemory() / 4; }
+
+    // lineBatches получает пачки строк файла по порядку (без пустых); нить прерывается — загрузка обрывается.
+    public static Thread start(Path file, long heapBudgetBytes, Path sortedOut, Consumer<List<String>> lineBatches) {
+        Thread t = new Thread(() -> {
+            long t0 = System.nanoTime();
+            try {
+                long estimate = Files.size(file) * HEAP_PER_FILE_BYTE;
+                if (estimate <= heapBudgetBytes) {
+                    long lines = ChannelLineReader.forEachBatch(file, BATCH_LINES, batch -> {
+                        if (Thread.currentThread().isInterrupted()) throw new CancellationException();
+                        lineBatches.accept(batch);
+                    });
+                    System.out.printf("Загружено %s: %d строк за %d мс%n", file, lines, ms(t0));
+                } else {
+                    Path out = sortedOut != null ? sortedOut : file.resolveSibling(file.getFileName() + ".sorted");
+                    System.out.printf("%s не влезает в бюджет кучи (~%d МБ > %d МБ) — внешняя сортировка в %s%n",
+                            file, estimate >> 20, heapBudgetBytes >> 20, out);
+                    ExternalSort.Result r = ExternalSort.sort(file, out, heapBudgetBytes);
+                    System.out.printf("Отсортировано: %d строк, %d кусков, прогонов %d, %d мс -> %s%n",
+                            r.lines(), r.chunks(), r.runs(), ms(t0), r.output());
+                }
+            } catch (CancellationException e) {
+                System.out.println("Загрузка " + file + " прервана");
+            } catch (IOException e) {
+                System.out.println("Загрузка " + file + " не удалась: " + e);
+            }
+        }, "loader");
+        t.start();
+        return t;
+    }
+
+    private static long ms(long t0) { return (System.nanoTime() - t0) / 1_000_000; }
+}
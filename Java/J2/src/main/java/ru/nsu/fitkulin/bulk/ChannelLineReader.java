@@ -0,0 +1,79 @@
+package ru.nsu.fitkulin.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Чтение большого текстового файла через FileChannel: байты идут крупными блоками в direct-буфер,
+// UTF-8 декодируется потоково, строки отдаются пачками. Пустые строки пропускаются — в файле
+// они не команда «печать», как в stdin.
+public final class ChannelLineReader {
+    private static final int BUFFER = 1 << 20;
+
+    private ChannelLineReader() {}
+
+    // Возвращает число прочитанных непустых строк.
+    public static long forEachBatch(Path file, int batchLines, Consumer<List<String>> sink) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER);
+        CharBuffer chars = CharBuffer.allocate(BUFFER);
+        StringBuilder line = new StringBuilder(128);
+        List<String> batch = new ArrayList<>(batchLines);
+        long lines = 0;
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            boolean eof = false;
+            while (!eof) {
+                eof = ch.read(bytes) < 0;
+                bytes.flip();
+                CoderResult r = decoder.decode(bytes, chars, eof);
+                if (r.isError()) r.throwException();
+                if (eof) decoder.flush(chars);
+                bytes.compact();
+
+                char[] a = chars.array();   // буфер на куче — ищем \n прямо в массиве
+                int end = chars.position();
+                int start = 0;
+                for (int i = 0; i < end; i++) {
+                    if (a[i] != '\n') continue;
+                    line.append(a, start, i - start);
+                    start = i + 1;
+                    lines += take(line, batch);
+                    if (batch.size() >= batchLines) {
+                        sink.accept(batch);
+                        batch = new ArrayList<>(batchLines);
+                    }
+                }
+                line.append(a, start, end - start);
+                chars.clear();
+            }
+        }
+        lines += take(line, batch); // последняя строка без \n
+        if (!batch.isEmpty()) sink.accept(batch);
+        return lines;
+    }
+
+    private static int take(StringBuilder line, List<String> batch) {
+        int len = line.length();
+        if (len > 0 && line.charAt(len - 1) == '\r') len--;
+        if (len == 0) {
+            line.setLength(0);
+            return 0;
+        }
+        batch.add(line.substring(0, len));
+        line.setLength(0);
+        return 1;
+    }
+}
@@ -0,0 +1,162 @@
+package ru.nsu.fitkulin.bulk;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+// Внешняя сортировка для файлов, которые не помещаются в кучу: строки режутся по 80 символов,
+// как в Main, копятся до бюджета, каждый прогон сортируется Arrays.parallelSort и пишется во
+// временный файл, затем прогоны сливаются k-путевым слиянием через PriorityQueue.
+public final class ExternalSort {
+    private static final int CHUNK = 80;
+    private static final int IO_BUFFER = 1 << 16;
+    private static final int READ_BATCH = 8192;
+    // String + byte[] + ссылка в массиве прогона, без самих символов
+    private static final long PER_CHUNK_OVERHEAD = 64;
+
+    public record Result(long lines, long chunks, int runs, Path output) {}
+
+    private ExternalSort() {}
+
+    public static Result sort(Path input, Path output, long heapBudgetBytes) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<String> run = new ArrayList<>();
+        long[] used = { 0 };
+        long[] chunks = { 0 };
+        long lines;
+        try (RunDir dir = new RunDir(Files.createTempDirectory(output.toAbsolutePath().getParent(), "j2-runs-"))) {
+            Path tmpDir = dir.path();
+            lines = ChannelLineReader.forEachBatch(input, READ_BATCH, batch -> {
+                for (String line : batch) {
+                    for (int i = 0; i < line.length(); i += CHUNK) {
+                        String part = line.substring(i, Math.min(i + CHUNK, line.length()));
+                        run.add(part);
+                        used[0] += PER_CHUNK_OVERHEAD + 2L * part.length();
+                        chunks[0]++;
+                    }
+                }
+                if (used[0] >= heapBudgetBytes) {
+                    runs.add(spill(run, tmpDir, runs.size()));
+                    run.clear();
+                    used[0] = 0;
+                }
+            });
+
+            if (runs.isEmpty()) {
+                // всё поместилось — временные файлы не нужны
+                String[] sorted = run.toArray(new String[0]);
+                Arrays.parallelSort(sorted);
+                try (Writer w = writer(output)) {
+                    for (String s : sorted) w.append(s).append('\n');
+                }
+                return new Result(lines, chunks[0], 1, output);
+            }
+            if (!run.isEmpty()) runs.add(spill(run, tmpDir, runs.size()));
+            run.clear();
+            merge(runs, output);
+            return new Result(lines, chunks[0], runs.size(), output);
+        } catch (UncheckedIOException e) {
+            IOException cause = e.getCause();
+            for (Throwable t : e.getSuppressed()) cause.addSuppressed(t);
+            throw cause;
+        }
+    }
+
+    // Каталог прогонов удаляется вместе со всем, что в нём есть: spill, упавший посреди записи,
+    // оставляет недописанный run-N, которого нет в списке прогонов. Ошибка удаления при этом
+    // приклеивается к исходной как suppressed и её не заменяет.
+    private record RunDir(Path path) implements Closeable {
+        @Override public void close() throws IOException {
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static Path spill(List<String> run, Path tmpDir, int index) {
+        String[] sorted = run.toArray(new String[0]);
+        Arrays.parallelSort(sorted);
+        Path p = tmpDir.resolve("run-" + index);
+        try (Writer w = writer(p)) {
+            for (String s : sorted) w.append(s).append('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return p;
+    }
+
+    private record Head(String line, RunReader from) {}
+
+    private static void merge(List<Path> runs, Path output) throws IOException {
+        PriorityQueue<Head> heads = new PriorityQueue<>(runs.size(), (a, b) -> a.line().compareTo(b.line()));
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try (Writer w = writer(output)) {
+            for (Path p : runs) {
+                RunReader r = new RunReader(new InputStreamReader(Files.newInputStream(p), StandardCharsets.UTF_8));
+                readers.add(r);
+                String first = r.next();
+                if (first != null) heads.add(new Head(first, r));
+            }
+            while (!heads.isEmpty()) {
+                Head h = heads.poll();
+                w.append(h.line()).append('\n');
+                String nxt = h.from().next();
+                if (nxt != null) heads.add(new Head(nxt, h.from()));
+            }
+        } finally {
+            for (RunReader r : readers) r.close();
+        }
+    }
+
+    // Строки прогона делятся только по '\n', как их пишет spill. BufferedReader.readLine резал бы
+    // ещё и по одиночному '\r', а кусок входной строки может его содержать.
+    private static final class RunReader implements Closeable {
+        private final Reader in;
+        private final char[] buf = new char[IO_BUFFER];
+        private final StringBuilder line = new StringBuilder(CHUNK);
+        private int pos;
+        private int end;
+
+        RunReader(Reader in) { this.in = in; }
+
+        // null — прогон кончился.
+        String next() throws IOException {
+            line.setLength(0);
+            while (true) {
+                if (pos == end) {
+                    pos = 0;
+                    end = Math.max(0, in.read(buf, 0, buf.length));
+                    if (end == 0) return line.isEmpty() ? null : line.toString();
+                }
+                int start = pos;
+                while (pos < end && buf[pos] != '\n') pos++;
+                line.append(buf, start, pos - start);
+                if (pos < end) {
+                    pos++;
+                    return line.toString();
+                }
+            }
+        }
+
+        @Override public void close() throws IOException { in.close(); }
+    }
+
+    // OutputStreamWriter заменяет одиночные суррогаты (кусок мог разрезать пару) на '?', а не падает.
+    private static Writer writer(Path p) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(p), StandardCharsets.UTF_8), IO_BUFFER);
+    }
+}
@@ -0,0 +1,356 @@
+package ru.nsu.fitkulin.own;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+import ru.nsu.fitkulin.sort.SortProgress;
+import ru.nsu.fitkulin.stats.SortStats;
+
+// Компактный список: вместо объекта Node + String + ReentrantLock на строку — номер узла в страницах
+// с плоскими массивами. На узел: слот 80 байт (кусок строки после chunk80), байт длины и int next.
+//
+// Кодировка как у String: если все символы ≤ 0xFF, в слоте лежат сами символы (latin1), иначе —
+// младшие байты, а старшие — во второй плоскости hi той же страницы (её заводим по первой широкой
+// строке). Сравнение идёт прямо по байтам слотов, строки создаются только при печати.
+//
+// Замки — 256 полос по номеру узла. Шаг пузырька читает тройку prev, a, b по одному замку,
+// потом берёт полосы всей тройки по возрастанию номера и проверяет, что тройка не поменялась.
+// Обход целиком (печать, вставка по порядку, слияние) берёт все полосы.
+final class ArenaLinkedList implements SortableList {
+    static final int SLOT = 80;                      // chunk80 режет строки по 80 символов
+    private static final int PAGE_SHIFT = 12;        // 4096 узлов: 320 КБ слотов + 16 КБ ссылок
+    private static final int PAGE = 1 << PAGE_SHIFT;
+    private static final int STRIPES = 256;
+    private static final int WIDE = 0x80;            // флаг в байте длины: есть старшие байты
+    private static final int HEAD = 0;
+    private static final int NIL = -1;
+
+    private static final class Page {
+        final byte[] lo = new byte[PAGE * SLOT];
+        final byte[] len = new byte[PAGE];
+        final int[] next = new int[PAGE];
+        volatile byte[] hi;
+    }
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantLock allocLock = new ReentrantLock();
+    private volatile Page[] pages = { new Page() };
+    private int allocated = 1;                       // узел 0 — голова (под allocLock)
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final ReentrantLock mergeLock = new ReentrantLock();
+    private int mergedSize;
+    private final SortProgress progress = new SortProgress();
+
+    ArenaLinkedList() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+        pages[0].next[HEAD] = NIL;
+    }
+
+    @Override public int size() { return size.get(); }
+
+    @Override public SortProgress progress() { return progress; }
+
+    @Override public void pushFront(String s) {
+        int n = allocate(s);
+        ReentrantLock l = stripe(HEAD);
+        l.lock();
+        try {
+            setNext(n, next(HEAD));
+            setNext(HEAD, n);
+            size.incrementAndGet();
+        } finally {
+            l.unlock();
+        }
+        progress.inserted();
+    }
+
+    @Override public void pushFrontAll(List<String> front) {
+        if (front.isEmpty()) return;
+        int[] ids = new int[front.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = allocate(front.get(i));
+        for (int i = 1; i < ids.length; i++) setNext(ids[i - 1], ids[i]); // узлы ещё не видны никому
+        ReentrantLock l = stripe(HEAD);
+        l.lock();
+        try {
+            setNext(ids[ids.length - 1], next(HEAD));
+            setNext(HEAD, ids[0]);
+            size.addAndGet(ids.length);
+        } finally {
+            l.unlock();
+        }
+        progress.inserted(ids.length);
+    }
+
+    // Проход по всему списку — под всеми полосами (в режиме INSERT сортировщики всё равно спят).
+    @Override public void insertOrdered(String s) {
+        int n = allocate(s);
+        lockAll();
+        try {
+            int prev = HEAD;
+            int curr = next(prev);
+            while (curr != NIL && compare(curr, n) <= 0) {
+                prev = curr;
+                curr = next(curr);
+            }
+            setNext(n, curr);
+            setNext(prev, n);
+            size.incrementAndGet();
+        } finally {
+            unlockAll();
+        }
+        progress.inserted();
+    }
+
+    // Данные узлов неизменны, поэтому сортируем номера вне замков и перешиваем next на месте.
+    @Override public int sortAndSplice(SortStats stats) {
+        if (!mergeLock.tryLock()) return 0;
+        try {
+            if (size.get() == mergedSize) return 0;
+            int first;
+            int[] ids;
+            lockAll();
+            try {
+                first = next(HEAD);
+                if (first == NIL) return 0;
+                ids = collect(first);
+            } finally {
+                unlockAll();
+            }
+
+            int[] sorted = IntStream.of(ids).boxed().parallel()
+                    .sorted((a, b) -> {
+                        stats.compared();
+                        return compare(a, b);
+                    }).mapToInt(Integer::intValue).toArray();
+
+            lockAll();
+            try {
+                int prev = HEAD;
+                while (prev != NIL && next(prev) != first) prev = next(prev);
+                if (prev == NIL) return 0;   // first уже не там — список меняли пузырьком
+                setNext(prev, sorted[0]);
+                for (int i = 1; i < sorted.length; i++) setNext(sorted[i - 1], sorted[i]);
+                setNext(sorted[sorted.length - 1], NIL);
+            } finally {
+                unlockAll();
+            }
+            progress.reordered();
+            mergedSize = sorted.length;
+            return sorted.length;
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    @Override public int bubblePass(long insideDelayMs, long betweenDelayMs, int limit, SortStats stats)
+            throws InterruptedException {
+        int bound = 0;
+        int pos = 0;
+        int prev = HEAD;
+
+        while (true) {
+            int a = readNext(prev, stats);
+            if (a == NIL) return bound;
+            int b = readNext(a, stats);
+            if (b == NIL) return bound;
+
+            int nextPrev;
+            int[] held = lockOrdered(prev, a, b, stats);
+            try {
+                if (next(prev) != a || next(a) != b) {
+                    stats.retried();
+                    nextPrev = prev;         // тройку успели поменять — перечитаем с того же prev
+                } else {
+                    // --- внутри шага (под замками тройки) ---
+                    if (insideDelayMs > 0) Thread.sleep(insideDelayMs);
+                    stats.compared();
+
+                    if (compare(a, b) > 0) {
+                        setNext(a, next(b));
+                        setNext(b, a);
+                        setNext(prev, b);
+                        progress.reordered();
+                        stats.swapped();
+                        bound = pos + 1;
+                        nextPrev = b;
+                    } else {
+                        if (pos >= limit) return bound; // дальше хвост уже по порядку
+                        nextPrev = a;
+                    }
+                    pos++;
+                }
+            } finally {
+                unlock(held);
+            }
+
+            if (betweenDelayMs > 0) Thread.sleep(betweenDelayMs);
+            prev = nextPrev;
+        }
+    }
+
+    // Порядок фиксируем под всеми полосами (только номера узлов, 4 байта на строку),
+    // строки собираем уже без замков — данные узлов не меняются.
+    @Override public Iterator<String> iterator() {
+        int[] ids;
+        lockAll();
+        try {
+            int first = next(HEAD);
+            ids = first == NIL ? new int[0] : collect(first);
+        } finally {
+            unlockAll();
+        }
+        return new Iterator<String>() {
+            int i = 0;
+
+            @Override public boolean hasNext() { return i < ids.length; }
+
+            @Override public String next() {
+                if (i >= ids.length) throw new NoSuchElementException();
+                return decode(ids[i++]);
+            }
+        };
+    }
+
+    // Итератор и так даёт состояние на один момент — повторы по version не нужны.
+    @Override public List<String> snapshot() {
+        List<String> copy = new ArrayList<>(size());
+        for (String s : this) copy.add(s);
+        return copy;
+    }
+
+    @Override public List<String> lockedSnapshot() { return snapshot(); }
+
+    // ---- хранение ----
+
+    private int allocate(String s) {
+        if (s.length() > SLOT) throw new IllegalArgumentException("chunk longer than " + SLOT + ": " + s.length());
+        allocLock.lock();
+        try {
+            int n = allocated++;
+            Page[] ps = pages;
+            int pi = n >>> PAGE_SHIFT;
+            if (pi == ps.length) ps = Arrays.copyOf(ps, ps.length * 2);
+            if (ps[pi] == null) {
+                ps[pi] = new Page();     // страницу заводим, только когда до неё дошли
+                pages = ps;              // публикуем каталог заново: страница видна до первой ссылки на узел
+            }
+            Page p = ps[pi];
+            int slot = n & (PAGE - 1);
+            int off = slot * SLOT;
+            boolean wide = false;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                p.lo[off + i] = (byte) c;
+                if (c > 0xFF) {
+                    if (p.hi == null) p.hi = new byte[PAGE * SLOT];
+                    wide = true;
+                }
+            }
+            if (wide) {
+                byte[] hi = p.hi;
+                for (int i = 0; i < s.length(); i++) hi[off + i] = (byte) (s.charAt(i) >>> 8);
+            }
+            p.len[slot] = (byte) (s.length() | (wide ? WIDE : 0));
+            p.next[slot] = NIL;
+            return n;
+        } finally {
+            allocLock.unlock();
+        }
+    }
+
+    // Тот же порядок, что у String.compareTo: по кодам char, при равном префиксе короче — меньше.
+    private int compare(int x, int y) {
+        Page px = page(x), py = page(y);
+        int sx = x & (PAGE - 1), sy = y & (PAGE - 1);
+        int lx = px.len[sx] & 0xFF, ly = py.len[sy] & 0xFF;
+        int ox = sx * SLOT, oy = sy * SLOT;
+        if (((lx | ly) & WIDE) == 0) {
+            return Arrays.compareUnsigned(px.lo, ox, ox + lx, py.lo, oy, oy + ly);
+        }
+        byte[] hx = (lx & WIDE) != 0 ? px.hi : null;
+        byte[] hy = (ly & WIDE) != 0 ? py.hi : null;
+        lx &= ~WIDE;
+        ly &= ~WIDE;
+        for (int i = 0, n = Math.min(lx, ly); i < n; i++) {
+            int cx = (px.lo[ox + i] & 0xFF) | (hx == null ? 0 : (hx[ox + i] & 0xFF) << 8);
+            int cy = (py.lo[oy + i] & 0xFF) | (hy == null ? 0 : (hy[oy + i] & 0xFF) << 8);
+            if (cx != cy) return cx - cy;
+        }
+        return lx - ly;
+    }
+
+    private String decode(int n) {
+        Page p = page(n);
+        int slot = n & (PAGE - 1);
+        int len = p.len[slot] & 0xFF;
+        int off = slot * SLOT;
+        if ((len & WIDE) == 0) return new String(p.lo, off, len, StandardCharsets.ISO_8859_1);
+        len &= ~WIDE;
+        char[] cs = new char[len];
+        for (int i = 0; i < len; i++) cs[i] = (char) ((p.lo[off + i] & 0xFF) | (p.hi[off + i] & 0xFF) << 8);
+        return new String(cs);
+    }
+
+    private Page page(int n) { return pages[n >>> PAGE_SHIFT]; }
+
+    private int next(int n) { return page(n).next[n & (PAGE - 1)]; }
+
+    private void setNext(int n, int to) { page(n).next[n & (PAGE - 1)] = to; }
+
+    // Номера узлов от first до хвоста; вызывать под всеми полосами.
+    private int[] collect(int first) {
+        int[] ids = new int[Math.max(16, size.get() + 16)];
+        int k = 0;
+        for (int n = first; n != NIL; n = next(n)) {
+            if (k == ids.length) ids = Arrays.copyOf(ids, ids.length * 2);
+            ids[k++] = n;
+        }
+        return Arrays.copyOf(ids, k);
+    }
+
+    // ---- замки ----
+
+    private ReentrantLock stripe(int n) { return stripes[n & (STRIPES - 1)]; }
+
+    private int readNext(int n, SortStats stats) {
+        ReentrantLock l = stripe(n);
+        stats.lock(l);
+        try {
+            return next(n);
+        } finally {
+            l.unlock();
+        }
+    }
+
+    // Полосы узлов по возрастанию номера, без повторов — общий порядок для всех, взаимной блокировки нет.
+    private int[] lockOrdered(int x, int y, int z, SortStats stats) {
+        int[] s = { x & (STRIPES - 1), y & (STRIPES - 1), z & (STRIPES - 1) };
+        Arrays.sort(s);
+        int k = 0;
+        for (int i = 0; i < s.length; i++) {
+            if (i == 0 || s[i] != s[i - 1]) s[k++] = s[i];
+        }
+        int[] held = Arrays.copyOf(s, k);
+        for (int i : held) stats.lock(stripes[i]);
+        return held;
+    }
+
+    private void unlock(int[] held) {
+        for (int i = held.length - 1; i >= 0; i--) stripes[held[i]].unlock();
+    }
+
+    private void lockAll() {
+        for (ReentrantLock l : stripes) l.lock();
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) stripes[i].unlock();
+    }
+}
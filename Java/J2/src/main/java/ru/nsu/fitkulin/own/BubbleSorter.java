@@ -1,19 +1,21 @@
 package ru.nsu.fitkulin.own;
 
-import java.util.concurrent.atomic.AtomicLong;
+import ru.nsu.fitkulin.stats.SortStats;
 
 final class BubbleSorter implements Runnable {
-    private final LockingSinglyLinkedList list;
+    private final SortableList list;
+    private final SortEngine engine;
     private final long delayBetweenMs;
     private final long delayInsideMs;
-    private final AtomicLong stepCounter;
+    private final SortStats stats;
     private volatile boolean running = true;
 
-    BubbleSorter(LockingSinglyLinkedList list, long delayBetweenMs, long delayInsideMs, AtomicLong stepCounter) {
+    BubbleSorter(SortableList list, SortEngine engine, long delayBetweenMs, long delayInsideMs, SortStats stats) {
         this.list = list;
+        this.engine = engine;
         this.delayBetweenMs = delayBetweenMs;
         this.delayInsideMs = delayInsideMs;
-        this.stepCounter = stepCounter;
+        this.stats = stats;
     }
 
     public void stop() { running = false; }
@@ -21,7 +23,7 @@ final class BubbleSorter implements Runnable {
     @Override public void run() {
         try {
             while (running) {
-                list.bubblePass(delayInsideMs, delayBetweenMs, stepCounter::incrementAndGet);
+                engine.work(list, delayInsideMs, delayBetweenMs, stats);
             }
         } catch (InterruptedException ignored) {
             Thread.currentThread().interrupt();
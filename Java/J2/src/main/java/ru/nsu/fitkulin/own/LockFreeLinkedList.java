@@ -0,0 +1,249 @@
+package ru.nsu.fitkulin.own;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ru.nsu.fitkulin.sort.SortProgress;
+import ru.nsu.fitkulin.stats.SortStats;
+
+// Список без замков: ссылки next — AtomicMarkableReference, метка = «узел заморожен» (как у Харриса).
+//
+// Перестановка prev -> a -> b -> c:
+//   1) замораживаем a.next и b.next (CAS метки) — больше никто не может их поменять;
+//   2) строим копии b' -> a' -> c;
+//   3) одним CAS переключаем prev.next с a на b'.
+// Не вышло на любом шаге — снимаем свои метки и пробуем снова. После успеха a и b мертвы навсегда,
+// а в поле replacement лежат их копии — по ним поток, стоявший на мёртвом узле, продолжает проход.
+final class LockFreeLinkedList implements SortableList {
+    private static final class Node {
+        final String value;
+        final AtomicMarkableReference<Node> next;
+        volatile Node replacement; // копия, заменившая этот узел (только у мёртвых)
+
+        Node(String value, Node next) {
+            this.value = value;
+            this.next = new AtomicMarkableReference<>(next, false);
+        }
+    }
+
+    private final Node head = new Node(null, null); // голову никогда не замораживаем
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final ReentrantLock mergeLock = new ReentrantLock(); // только между раундами слияния
+    private int mergedSize;
+    private final SortProgress progress = new SortProgress();
+
+    @Override public int size() { return size.get(); }
+
+    @Override public SortProgress progress() { return progress; }
+
+    @Override public void pushFront(String s) {
+        Node n = new Node(s, null);
+        while (true) {
+            Node first = head.next.getReference();
+            n.next.set(first, false);
+            if (head.next.compareAndSet(first, n, false, false)) break;
+        }
+        size.incrementAndGet();
+        progress.inserted();
+    }
+
+    @Override public void pushFrontAll(List<String> front) {
+        if (front.isEmpty()) return;
+        Node tail = new Node(front.get(front.size() - 1), null);
+        Node chainHead = tail;
+        for (int i = front.size() - 2; i >= 0; i--) chainHead = new Node(front.get(i), chainHead);
+        while (true) {
+            Node first = head.next.getReference();
+            tail.next.set(first, false);
+            if (head.next.compareAndSet(first, chainHead, false, false)) break;
+        }
+        size.addAndGet(front.size());
+        progress.inserted(front.size());
+    }
+
+    @Override public void insertOrdered(String s) {
+        Node n = new Node(s, null);
+        while (true) {
+            Node prev = head;
+            Node curr = prev.next.getReference();
+            while (curr != null && curr.value.compareTo(s) <= 0) {
+                prev = curr;
+                curr = curr.next.getReference();
+            }
+            n.next.set(curr, false);
+            // prev заморожен или между prev и curr кто-то встал — ищем место заново
+            if (prev.next.compareAndSet(curr, n, false, false)) break;
+        }
+        size.incrementAndGet();
+        progress.inserted();
+    }
+
+    @Override public int sortAndSplice(SortStats stats) {
+        if (!mergeLock.tryLock()) return 0;
+        try {
+            if (size.get() == mergedSize) return 0;
+            Node first = head.next.getReference();
+            if (first == null) return 0;
+
+            List<String> values = new ArrayList<>(size.get());
+            for (Node n = first; n != null; n = n.next.getReference()) values.add(n.value);
+            String[] sorted = values.toArray(new String[0]);
+            Arrays.parallelSort(sorted, stats.countingOrder());
+            Node chain = null;
+            for (int i = sorted.length - 1; i >= 0; i--) chain = new Node(sorted[i], chain);
+
+            // перед first только вставленное за время раунда; CAS не прошёл — вставили ещё, ищем снова
+            while (true) {
+                Node prev = head;
+                while (prev != null && prev.next.getReference() != first) prev = prev.next.getReference();
+                if (prev == null) return 0; // first пропал — список меняли пузырьком
+                if (prev.next.compareAndSet(first, chain, false, false)) break;
+            }
+            progress.reordered();
+            mergedSize = sorted.length;
+            return sorted.length;
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    @Override public int bubblePass(long insideDelayMs, long betweenDelayMs, int limit, SortStats stats)
+            throws InterruptedException {
+        int bound = 0;
+        int pos = 0;                        // позиция a от головы
+        boolean[] mark = new boolean[1];
+        Node prev = head;
+
+        while (true) {
+            Node a = prev.next.get(mark);
+            if (mark[0]) {                  // prev участвует в чужой перестановке
+                stats.retried();
+                prev = settle(prev);
+                continue;
+            }
+            if (a == null) return bound;    // список короче двух элементов
+
+            Node b = a.next.get(mark);
+            if (mark[0]) {                  // a заморожен другой нитью — подождём её
+                stats.retried();
+                Thread.onSpinWait();
+                continue;
+            }
+            if (b == null) return bound;    // достигли хвоста
+
+            Node c = b.next.get(mark);
+            if (mark[0]) {
+                stats.retried();
+                Thread.onSpinWait();
+                continue;
+            }
+
+            // --- внутри шага (ничего не держим, значения узлов неизменны) ---
+            if (insideDelayMs > 0) Thread.sleep(insideDelayMs);
+            stats.compared(); // считаем ПОПЫТКУ
+
+            Node nextPrev;
+            if (a.value.compareTo(b.value) > 0) {
+                Node swapped = swap(prev, a, b, c);
+                if (swapped == null) {         // кто-то успел раньше — перечитаем ту же пару
+                    stats.retried();
+                    continue;
+                }
+                progress.reordered();
+                stats.swapped();
+                bound = pos + 1;
+                nextPrev = swapped;            // b' — продвинулись на один узел
+            } else {
+                if (pos >= limit) return bound; // дальше хвост уже по порядку
+                nextPrev = a;
+            }
+            pos++;
+
+            // --- задержка между шагами ---
+            if (betweenDelayMs > 0) Thread.sleep(betweenDelayMs);
+            prev = nextPrev;
+        }
+    }
+
+    // prev -> a -> b -> c  ==>  prev -> b' -> a' -> c; null, если помешали.
+    private static Node swap(Node prev, Node a, Node b, Node c) {
+        if (!a.next.compareAndSet(b, b, false, true)) return null;
+        if (!b.next.compareAndSet(c, c, false, true)) {
+            a.next.set(b, false);              // откат: метку на a ставили мы, снимаем тоже мы
+            return null;
+        }
+        Node a2 = new Node(a.value, c);
+        Node b2 = new Node(b.value, a2);
+        if (!prev.next.compareAndSet(a, b2, false, false)) {
+            b.next.set(c, false);
+            a.next.set(b, false);
+            return null;
+        }
+        a.replacement = a2;
+        b.replacement = b2;
+        return b2;
+    }
+
+    // Узел заморожен: либо идёт чужая перестановка (ждём отката или фиксации), либо он уже мёртв.
+    private static Node settle(Node n) {
+        while (n.next.isMarked()) {
+            Node r = n.replacement;
+            if (r != null) n = r;
+            else Thread.onSpinWait();
+        }
+        return n;
+    }
+
+    // Замков у узлов нет, поэтому список останавливаем его же метками: замораживаем next у всех узлов
+    // от первого до хвоста, как перестановка замораживает свою пару. Перестановка и упорядоченная
+    // вставка на замороженном узле не пройдут и подождут; слияние не начнётся под mergeLock.
+    // Голову не замораживаем: вставки в начало идут и дальше, в снимок они не попадут — он
+    // показывает список на момент, когда заморожен последний узел, без вставленного за это время
+    // в начало. Метку, поставленную чужой перестановкой, ждём: её prev уже наш, и она откатится.
+    @Override public List<String> lockedSnapshot() {
+        List<Node> frozen = new ArrayList<>();
+        List<String> copy = new ArrayList<>(size());
+        mergeLock.lock();
+        try {
+            Node prev = head;
+            while (true) {
+                Node n = prev.next.getReference();   // у замороженного prev next уже не сменится
+                if (n == null) return copy;
+                Node after = n.next.getReference();
+                if (!n.next.compareAndSet(after, after, false, true)) {
+                    Thread.onSpinWait();              // n заморожен чужой перестановкой или мёртв
+                    continue;
+                }
+                frozen.add(n);
+                copy.add(n.value);
+                prev = n;
+            }
+        } finally {
+            for (Node n : frozen) n.next.set(n.next.getReference(), false);
+            mergeLock.unlock();
+        }
+    }
+
+    // Слабо согласованный обход без блокировок: идём по ссылкам, не глядя на метки. Мёртвые узлы
+    // по-прежнему ведут дальше по списку в старом порядке, поэтому каждый элемент виден ровно раз.
+    @Override public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            Node curr = head.next.getReference();
+
+            @Override public boolean hasNext() { return curr != null; }
+
+            @Override public String next() {
+                if (curr == null) throw new NoSuchElementException();
+                String out = curr.value;
+                curr = curr.next.getReference();
+                return out;
+            }
+        };
+    }
+}
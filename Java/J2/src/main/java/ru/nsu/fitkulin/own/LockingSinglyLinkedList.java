@@ -1,15 +1,27 @@
 package ru.nsu.fitkulin.own;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
-final class LockingSinglyLinkedList implements Iterable<String> {
+import ru.nsu.fitkulin.sort.SortProgress;
+import ru.nsu.fitkulin.stats.SortStats;
+
+final class LockingSinglyLinkedList implements SortableList {
     private final Node head = new Node(null);
     private final AtomicInteger size = new AtomicInteger(0);
+    private final ReentrantLock mergeLock = new ReentrantLock(); // один раунд слияния за раз
+    private int mergedSize;                                      // размер после прошлого раунда (под mergeLock)
+    private final SortProgress progress = new SortProgress();
 
     public int size() { return size.get(); }
 
+    public SortProgress progress() { return progress; }
+
     public void pushFront(String s) {
         Node n = new Node(s);
         head.lock.lock();
@@ -26,46 +38,157 @@ final class LockingSinglyLinkedList implements Iterable<String> {
         } finally {
             head.lock.unlock();
         }
+        progress.inserted();
+    }
+
+    public void pushFrontAll(List<String> front) {
+        if (front.isEmpty()) return;
+        // цепочку собираем без замков — её пока никто не видит
+        Node chainHead = new Node(front.get(0));
+        Node tail = chainHead;
+        for (int i = 1; i < front.size(); i++) {
+            tail.next = new Node(front.get(i));
+            tail = tail.next;
+        }
+        head.lock.lock();
+        try {
+            Node oldFirst = head.next;
+            if (oldFirst != null) oldFirst.lock.lock();
+            try {
+                tail.next = oldFirst;
+                head.next = chainHead;
+                size.addAndGet(front.size());
+            } finally {
+                if (oldFirst != null) oldFirst.lock.unlock();
+            }
+        } finally {
+            head.lock.unlock();
+        }
+        progress.inserted(front.size());
     }
 
-    public int bubblePass(long insideDelayMs, long betweenDelayMs, Runnable stepHook) throws InterruptedException {
-        int swaps = 0;
+    public void insertOrdered(String s) {
+        Node n = new Node(s);
+        Node prev = head;
+        prev.lock.lock();
+        while (true) {
+            // prev заблокирован — prev.next никто не поменяет, пока мы не вставим
+            Node curr = prev.next;
+            if (curr == null || curr.value.compareTo(s) > 0) {
+                n.next = curr;
+                prev.next = n;
+                size.incrementAndGet();
+                prev.lock.unlock();
+                progress.inserted();
+                return;
+            }
+            curr.lock.lock();
+            prev.lock.unlock();
+            prev = curr;
+        }
+    }
+
+    public int sortAndSplice(SortStats stats) {
+        if (!mergeLock.tryLock()) return 0; // раунд уже идёт в другой нити
+        try {
+            if (size.get() == mergedSize) return 0;
+
+            // 1) снимок: первый узел и все значения (поузловая блокировка, как в итераторе)
+            List<String> values = new ArrayList<>(size.get());
+            Node first;
+            head.lock.lock();
+            try {
+                first = head.next;
+                if (first == null) return 0;
+                first.lock.lock();
+            } finally {
+                head.lock.unlock();
+            }
+            Node curr = first;
+            while (curr != null) {
+                values.add(curr.value);
+                Node nxt = curr.next;
+                if (nxt != null) nxt.lock.lock();
+                curr.lock.unlock();
+                curr = nxt;
+            }
+
+            // 2) сортировка и новая цепочка — без замков
+            String[] sorted = values.toArray(new String[0]);
+            Arrays.parallelSort(sorted, stats.countingOrder());
+            Node chain = null;
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                Node n = new Node(sorted[i]);
+                n.next = chain;
+                chain = n;
+            }
+
+            // 3) подмена: перед first только то, что вставили за время раунда
+            Node prev = head;
+            prev.lock.lock();
+            while (prev.next != first) {
+                Node nxt = prev.next;
+                if (nxt == null) {          // first пропал — список меняли пузырьком, раунд не считается
+                    prev.lock.unlock();
+                    return 0;
+                }
+                nxt.lock.lock();
+                prev.lock.unlock();
+                prev = nxt;
+            }
+            prev.next = chain;
+            prev.lock.unlock();
+            progress.reordered();
+
+            mergedSize = sorted.length;
+            return sorted.length;
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    public int bubblePass(long insideDelayMs, long betweenDelayMs, int limit, SortStats stats)
+            throws InterruptedException {
+        int bound = 0;
+        int pos = 0;          // позиция a от головы
         Node prev = head;
 
         while (true) {
             Node nextPrev = null; // сюда положим, кем станет prev после освобождения замков
 
             // 1) Блокируем prev
-            prev.lock.lock();
+            stats.lock(prev.lock);
             Node a;
             try {
                 a = prev.next;
                 if (a == null) {            // список короче двух элементов
-                    return swaps;
+                    return bound;
                 }
 
                 // 2) Блокируем a
-                a.lock.lock();
+                stats.lock(a.lock);
                 Node b;
                 try {
                     // проверка смежности (вдруг другая нить что-то передвинула)
                     if (prev.next != a) {
+                        stats.retried();
                         nextPrev = prev;    // просто повторим с тем же prev
                     } else {
                         b = a.next;
                         if (b == null) {    // достигли хвоста
-                            return swaps;
+                            return bound;
                         }
 
                         // 3) Блокируем b
-                        b.lock.lock();
+                        stats.lock(b.lock);
                         try {
                             if (a.next != b) {
+                                stats.retried();
                                 nextPrev = prev; // нарушилась смежность — повторим
                             } else {
                                 // --- внутри шага (под замками пары) ---
                                 if (insideDelayMs > 0) Thread.sleep(insideDelayMs);
-                                if (stepHook != null) stepHook.run(); // считаем ПОПЫТКУ
+                                stats.compared(); // считаем ПОПЫТКУ
 
                                 if (a.value.compareTo(b.value) > 0) {
                                     // перестановка ссылок: prev -> b -> a -> ...
@@ -73,11 +196,15 @@ final class LockingSinglyLinkedList implements Iterable<String> {
                                     a.next = afterB;
                                     b.next = a;
                                     prev.next = b;
-                                    swaps++;
+                                    progress.reordered();
+                                    stats.swapped();
+                                    bound = pos + 1;
                                     nextPrev = prev.next; // т.е. b — продвинулись на один узел
                                 } else {
+                                    if (pos >= limit) return bound; // дальше хвост уже по порядку
                                     nextPrev = a;         // без свопа prev сдвигается на a
                                 }
+                                pos++;
                             }
                         } finally {
                             b.lock.unlock();
@@ -99,6 +226,25 @@ final class LockingSinglyLinkedList implements Iterable<String> {
     }
 
 
+    // Держим замки всех узлов от головы до хвоста. Берём их в том же порядке, что сортировщики
+    // и слияние, так что взаимной блокировки нет; пока держим голову, нет и вставок.
+    @Override public List<String> lockedSnapshot() {
+        List<Node> held = new ArrayList<>();
+        List<String> copy = new ArrayList<>(size());
+        head.lock.lock();
+        held.add(head);
+        try {
+            for (Node n = head.next; n != null; n = n.next) {
+                n.lock.lock();             // n.next меняют только под замком n
+                held.add(n);
+                copy.add(n.value);
+            }
+            return copy;
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) held.get(i).lock.unlock();
+        }
+    }
+
     // Итератор для for-each: «живой» просмотр с поузловой блокировкой (head->curr->next).
     @Override public Iterator<String> iterator() {
         return new Iterator<String>() {
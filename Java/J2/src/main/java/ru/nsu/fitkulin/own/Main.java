@@ -2,9 +2,14 @@ package ru.nsu.fitkulin.own;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+
+import ru.nsu.fitkulin.bulk.BulkLoad;
+import ru.nsu.fitkulin.stats.SortStats;
+import ru.nsu.fitkulin.stats.StatsReporter;
 
 public class Main {
     private static List<String> chunk80(String s) {
@@ -14,41 +19,101 @@ public class Main {
         return res;
     }
 
+    // Куски строк пачкой в том порядке, какой дали бы вставки по одной: последняя строка — первой,
+    // куски каждой строки — по порядку.
+    private static List<String> frontOrder(List<String> lines) {
+        List<String> reversed = new ArrayList<>();
+        for (String line : lines) {
+            var parts = chunk80(line);
+            for (int i = parts.size() - 1; i >= 0; i--) reversed.add(parts.get(i));
+        }
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    // Формируем вывод целиком вне замков и пишем одним вызовом.
+    private static void print(List<String> snapshot, long steps) {
+        StringBuilder out = new StringBuilder(snapshot.size() * 16 + 128);
+        out.append("---- Список (size=").append(snapshot.size()).append(", steps=").append(steps).append(") ----\n");
+        for (String s : snapshot) out.append(s).append('\n');
+        out.append("-------------------------------------");
+        System.out.println(out);
+    }
+
     public static void main(String[] args) throws Exception {
-        int threads = args.length >= 1 ? Integer.parseInt(args[0]) : 2;
-        long betweenMs = args.length >= 2 ? Long.parseLong(args[1]) : 100;
-        long insideMs  = args.length >= 3 ? Long.parseLong(args[2]) : 100;
+        // флаги можно ставить где угодно, остальное — позиционные: threads between inside
+        boolean lockFree = false;
+        boolean arena = false;
+        SortEngine engine = SortEngine.BUBBLE;
+        Path load = null;
+        Path sortedOut = null;
+        long budget = BulkLoad.defaultBudgetBytes();
+        long statsSec = 0;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--lock-free".equals(args[i])) lockFree = true;
+            else if ("--arena".equals(args[i])) arena = true;
+            else if ("--engine".equals(args[i]) && i + 1 < args.length) engine = SortEngine.parse(args[++i]);
+            else if ("--load".equals(args[i]) && i + 1 < args.length) load = Path.of(args[++i]);
+            else if ("--sorted-out".equals(args[i]) && i + 1 < args.length) sortedOut = Path.of(args[++i]);
+            else if ("--heap-budget-mb".equals(args[i]) && i + 1 < args.length) budget = Long.parseLong(args[++i]) << 20;
+            else if ("--stats".equals(args[i]) && i + 1 < args.length) statsSec = Long.parseLong(args[++i]);
+            else positional.add(args[i]);
+        }
+        if (lockFree && arena) throw new IllegalArgumentException("--lock-free and --arena are different lists, pick one");
+        int threads = positional.size() >= 1 ? Integer.parseInt(positional.get(0)) : 2;
+        long betweenMs = positional.size() >= 2 ? Long.parseLong(positional.get(1)) : 100;
+        long insideMs  = positional.size() >= 3 ? Long.parseLong(positional.get(2)) : 100;
 
-        System.out.printf("LinkedList mode | sorters=%d | delays: between=%dms, inside=%dms%n",
-                threads, betweenMs, insideMs);
+        System.out.printf("LinkedList mode (%s, %s) | sorters=%d | delays: between=%dms, inside=%dms%n",
+                lockFree ? "lock-free" : arena ? "arena" : "locking", engine.name().toLowerCase(), threads, betweenMs, insideMs);
 
-        LockingSinglyLinkedList list = new LockingSinglyLinkedList();
-        AtomicLong steps = new AtomicLong();
+        SortableList list = lockFree ? new LockFreeLinkedList()
+                : arena ? new ArenaLinkedList()
+                : new LockingSinglyLinkedList();
+        SortStats stats = new SortStats(list::snapshot, list::size, threads);
+        StatsReporter.register(stats);
+        Thread reporter = statsSec > 0 ? StatsReporter.start(stats, statsSec) : null;
 
         var runners = new ArrayList<BubbleSorter>();
         var workerThreads = new ArrayList<Thread>();
         for (int i = 0; i < threads; i++) {
-            BubbleSorter r = new BubbleSorter(list, betweenMs, insideMs, steps);
+            BubbleSorter r = new BubbleSorter(list, engine, betweenMs, insideMs, stats);
             Thread t = new Thread(r, "sorter-" + i);
             runners.add(r);
             workerThreads.add(t);
             t.start();
         }
 
+        SortEngine eng = engine;
+        Thread loader = load == null ? null : BulkLoad.start(load, budget, sortedOut,
+                lines -> eng.insertAll(list, frontOrder(lines)));
+
         System.out.println("Введите строки. Пустая строка — печать. EOF — выход.");
         try (var br = new BufferedReader(new InputStreamReader(System.in))) {
+            List<String> pending = new ArrayList<>();
             String line;
             while ((line = br.readLine()) != null) {
                 if (line.isEmpty()) {
-                    System.out.println("---- Список (size=" + list.size() + ", steps=" + steps.get() + ") ----");
-                    for (String s : list) System.out.println(s); // for-each, как требуют
-                    System.out.println("-------------------------------------");
+                    if (!pending.isEmpty()) engine.insertAll(list, frontOrder(pending));
+                    pending.clear();
+                    print(list.snapshot(), stats.comparisons());
                 } else {
-                    var parts = chunk80(line);
-                    for (int i = parts.size() - 1; i >= 0; i--) list.pushFront(parts.get(i));
+                    pending.add(line);
+                    // ввод идёт потоком (вставили из буфера) — копим пачку, иначе вставляем сразу
+                    if (!br.ready() || pending.size() >= BulkLoad.BATCH_LINES) {
+                        engine.insertAll(list, frontOrder(pending));
+                        pending.clear();
+                    }
                 }
             }
+            if (!pending.isEmpty()) engine.insertAll(list, frontOrder(pending));
         } finally {
+            if (reporter != null) reporter.interrupt();
+            if (loader != null) {
+                loader.interrupt();
+                loader.join();
+            }
             for (BubbleSorter r : runners) r.stop();
             for (Thread t : workerThreads) t.interrupt();
             for (Thread t : workerThreads) t.join();
@@ -0,0 +1,45 @@
+package ru.nsu.fitkulin.own;
+
+import java.util.List;
+
+import ru.nsu.fitkulin.sort.SortRounds;
+import ru.nsu.fitkulin.stats.SortStats;
+
+// Стратегия сортировки: как Main кладёт строку в список и что делает каждый сортировщик за один раунд.
+enum SortEngine {
+    // Пузырёк: вставка в начало, сортировщики гоняют проходы по соседним парам. O(n²) до порядка.
+    BUBBLE {
+        @Override void work(SortableList list, long insideDelayMs, long betweenDelayMs, SortStats stats)
+                throws InterruptedException {
+            SortRounds.bubble(list.progress(), limit -> list.bubblePass(insideDelayMs, betweenDelayMs, limit, stats));
+        }
+    },
+    // Слияние: вставка в начало, в фоне список копируется, сортируется Arrays.parallelSort
+    // (merge sort на fork-join) и подменяется одной заменой ссылки. Раунд — только если список менялся.
+    MERGE {
+        @Override void work(SortableList list, long insideDelayMs, long betweenDelayMs, SortStats stats)
+                throws InterruptedException {
+            SortRounds.merge(list.progress(), betweenDelayMs, () -> list.sortAndSplice(stats));
+        }
+    },
+    // Упорядоченная вставка: Main сразу ставит строку на её место, сортировщикам делать нечего.
+    // Поиск места в связном списке линейный, так что для больших вставок лучше MERGE.
+    INSERT {
+        @Override void insertAll(SortableList list, List<String> front) {
+            for (String s : front) list.insertOrdered(s);
+        }
+
+        @Override void work(SortableList list, long insideDelayMs, long betweenDelayMs, SortStats stats)
+                throws InterruptedException {
+            SortRounds.idle(list.progress());
+        }
+    };
+
+    // Пачка строк в том порядке, в каком они должны оказаться в начале списка.
+    void insertAll(SortableList list, List<String> front) { list.pushFrontAll(front); }
+
+    abstract void work(SortableList list, long insideDelayMs, long betweenDelayMs, SortStats stats)
+            throws InterruptedException;
+
+    static SortEngine parse(String name) { return SortRounds.parse(SortEngine.class, name); }
+}
@@ -0,0 +1,55 @@
+package ru.nsu.fitkulin.own;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ru.nsu.fitkulin.sort.SortProgress;
+import ru.nsu.fitkulin.stats.SortStats;
+
+// Список, который сортируют BubbleSorter'ы и параллельно пополняет Main.
+interface SortableList extends Iterable<String> {
+    int SNAPSHOT_RETRIES = 3;
+
+    int size();
+
+    void pushFront(String s);
+
+    // Пачка в начало за одну вставку: front[0] станет первым элементом списка.
+    void pushFrontAll(List<String> front);
+
+    // Вставка на своё место в уже упорядоченном списке.
+    void insertOrdered(String s);
+
+    // Один проход пузырька от головы. Начиная с позиции limit хвост считается отсортированным:
+    // там проход кончается на первой паре по порядку. Возвращает позицию за последней
+    // перестановкой (0 — перестановок не было). Сравнения, перестановки, повторы шагов и
+    // ожидание замков идут в stats.
+    int bubblePass(long insideDelayMs, long betweenDelayMs, int limit, SortStats stats)
+            throws InterruptedException;
+
+    // Скопировать список, отсортировать копию и подменить ею то, что было скопировано
+    // (вставленное в начало за это время остаётся перед ним). Возвращает число отсортированных
+    // элементов; 0 — со времени прошлого раунда ничего не вставляли. Сравнения идут в stats.
+    int sortAndSplice(SortStats stats);
+
+    // Вставки и перестановки отмечаются здесь; по нему сортировщики паркуются.
+    SortProgress progress();
+
+    // Снимок для печати: только копирование, без ввода-вывода, замки держит лишь итератор.
+    // Как seqlock: если version за время обхода не сдвинулась — это состояние на один момент.
+    // Если сортировщики всё время что-то двигают, после нескольких попыток список на время
+    // копии останавливается (lockedSnapshot) — рваный снимок наружу не уходит.
+    default List<String> snapshot() {
+        List<String> copy = new ArrayList<>(size());
+        for (int attempt = 1; attempt <= SNAPSHOT_RETRIES; attempt++) {
+            long version = progress().version();
+            for (String s : this) copy.add(s); // for-each, как требуют
+            if (progress().version() == version) return copy;
+            copy.clear();
+        }
+        return lockedSnapshot();
+    }
+
+    // Копия, пока список никто не меняет: сортировщики и вставки ждут, пока она не снята.
+    List<String> lockedSnapshot();
+}
@@ -0,0 +1,87 @@
+package ru.nsu.fitkulin.sort;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Что известно об упорядоченности списка — чтобы сортировщики не гоняли пустые проходы.
+// Общий для own и standart: списки там разные, а учёт один.
+//
+// version растёт при каждой вставке и перестановке (по ней же проверяется снимок для печати).
+// Полный проход без перестановок, за время которого version не сдвинулась, доказывает, что список
+// отсортирован: запоминаем эту версию в sortedAt и паркуемся, пока вставка её не сдвинет.
+//
+// dirty — длина префикса, который может быть не по порядку (дальше — отсортированный хвост).
+// Вставки в начало её увеличивают, проход пузырька сужает до позиции последней перестановки.
+// Это только подсказка: отсортированным список объявляет лишь полный проход.
+public final class SortProgress {
+    public static final int WHOLE = Integer.MAX_VALUE;  // граница неизвестна — проход по всему списку
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong inserts = new AtomicLong();
+    private final AtomicInteger dirty = new AtomicInteger();
+    private volatile long sortedAt;              // пустой список отсортирован
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final AtomicInteger sleepers = new AtomicInteger();
+
+    // Снимок перед проходом.
+    public record Pass(long version, long inserts, int limit) {}
+
+    public Pass begin() { return new Pass(version.get(), inserts.get(), dirty.get()); }
+
+    public long version() { return version.get(); }
+
+    public boolean isSorted() { return version.get() == sortedAt; }
+
+    // Вставка. Вызывать после того, как элемент уже виден в списке.
+    public void inserted() { inserted(1); }
+
+    // Пачка из n элементов, вставленная разом.
+    public void inserted(int n) {
+        inserts.addAndGet(n);
+        dirty.updateAndGet(d -> (long) d + n >= WHOLE ? WHOLE : d + n);
+        version.incrementAndGet();
+        // спящих будим только если они есть; пара version/sleepers — как у Деккера, оба атомики
+        if (sleepers.get() > 0) {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Перестановка или подмена цепочки: порядок поменялся, состав — нет.
+    public void reordered() { version.incrementAndGet(); }
+
+    // Итог прохода: bound — позиция за последней перестановкой (0 — перестановок не было).
+    public void passDone(Pass p, int bound) {
+        if (bound > 0) {
+            int added = (int) Math.min(WHOLE - 1L, inserts.get() - p.inserts());
+            dirty.set((int) Math.min(WHOLE - 1L, (long) bound + added));
+        } else if (version.get() == p.version()) {
+            if (p.limit() == WHOLE) {
+                sortedAt = p.version();          // если version уже ушла — isSorted() просто вернёт false
+                dirty.compareAndSet(WHOLE, 0);
+            } else {
+                dirty.set(WHOLE);                // префикс чист — подтвердим полным проходом
+            }
+        }
+    }
+
+    // Ждать, пока version не уйдёт от seen (сдвинуть её у отсортированного списка может только вставка).
+    public void awaitChange(long seen) throws InterruptedException {
+        lock.lock();
+        sleepers.incrementAndGet();
+        try {
+            while (version.get() == seen) changed.await();
+        } finally {
+            sleepers.decrementAndGet();
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.nsu.fitkulin.sort;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Раунд сортировщика, общий для движков own и standart: когда делать проход или слияние, а когда
+// спать до вставки. Сам проход и само слияние у каждого списка свои и передаются сюда.
+public final class SortRounds {
+    // Проход пузырька: limit — граница грязного префикса (SortProgress), результат — позиция
+    // за последней перестановкой (0 — перестановок не было).
+    @FunctionalInterface
+    public interface BubblePass {
+        int run(int limit) throws InterruptedException;
+    }
+
+    // Слияние: число отсортированных элементов; 0 — сливать нечего или раунд уже идёт в другой нити.
+    @FunctionalInterface
+    public interface MergeRound {
+        int run();
+    }
+
+    private SortRounds() {}
+
+    // Пузырёк: проход только по грязному префиксу; когда список отсортирован — спим до вставки.
+    public static void bubble(SortProgress progress, BubblePass pass) throws InterruptedException {
+        SortProgress.Pass p = progress.begin();
+        if (progress.isSorted()) {
+            progress.awaitChange(p.version());
+            return;
+        }
+        progress.passDone(p, pass.run(p.limit()));
+    }
+
+    // Слияние: после раунда — пауза, без раунда — спим без замков, следующий возьмёт любой.
+    public static void merge(SortProgress progress, long delayBetweenMs, MergeRound round)
+            throws InterruptedException {
+        long version = progress.version();
+        if (round.run() > 0) {
+            if (delayBetweenMs > 0) TimeUnit.MILLISECONDS.sleep(delayBetweenMs);
+        } else {
+            progress.awaitChange(version);
+        }
+    }
+
+    // Упорядоченную вставку делает сам Main — сортировщику остаётся ждать.
+    public static void idle(SortProgress progress) throws InterruptedException {
+        progress.awaitChange(progress.version());
+    }
+
+    public static <E extends Enum<E>> E parse(Class<E> engines, String name) {
+        for (E e : engines.getEnumConstants()) {
+            if (e.name().equalsIgnoreCase(name)) return e;
+        }
+        throw new IllegalArgumentException("Unknown engine: " + name + " (" + Arrays.stream(engines.getEnumConstants())
+                .map(e -> e.name().toLowerCase()).collect(Collectors.joining(" | ")) + ")");
+    }
+}
@@ -1,22 +1,27 @@
 package ru.nsu.fitkulin.standart;
 
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+
+import ru.nsu.fitkulin.sort.SortProgress;
+import ru.nsu.fitkulin.stats.SortStats;
 
 final class ArrayBubbleSorter implements Runnable {
     private final List<String> list;
+    private final SortEngine engine;
+    private final SortProgress progress;
     private final long delayBetweenMs;
     private final long delayInsideMs;
-    private final AtomicLong stepCounter;
+    private final SortStats stats;
     private volatile boolean running = true;
 
-    ArrayBubbleSorter(List<String> syncList, long delayBetweenMs, long delayInsideMs, AtomicLong stepCounter) {
+    ArrayBubbleSorter(List<String> syncList, SortEngine engine, SortProgress progress, long delayBetweenMs,
+                      long delayInsideMs, SortStats stats) {
         this.list = syncList;
+        this.engine = engine;
+        this.progress = progress;
         this.delayBetweenMs = delayBetweenMs;
         this.delayInsideMs = delayInsideMs;
-        this.stepCounter = stepCounter;
+        this.stats = stats;
     }
 
     public void stop() { running = false; }
@@ -24,21 +29,7 @@ final class ArrayBubbleSorter implements Runnable {
     @Override public void run() {
         try {
             while (running) {
-                int n;
-                synchronized (list) { n = list.size(); }
-                for (int i = 0; i < Math.max(0, n - 1) && running; i++) {
-                    if (delayInsideMs > 0) TimeUnit.MILLISECONDS.sleep(delayInsideMs);
-
-                    synchronized (list) {
-                        if (i + 1 >= list.size()) break;
-                        String a = list.get(i);
-                        String b = list.get(i + 1);
-                        if (a.compareTo(b) > 0) Collections.swap(list, i, i + 1);
-                    }
-                    stepCounter.incrementAndGet();
-
-                    if (delayBetweenMs > 0) TimeUnit.MILLISECONDS.sleep(delayBetweenMs);
-                }
+                engine.work(list, progress, delayInsideMs, delayBetweenMs, stats, () -> running);
             }
         } catch (InterruptedException ignored) {
             Thread.currentThread().interrupt();
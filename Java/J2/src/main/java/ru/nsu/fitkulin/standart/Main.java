@@ -2,10 +2,17 @@ package ru.nsu.fitkulin.standart;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import ru.nsu.fitkulin.bulk.BulkLoad;
+import ru.nsu.fitkulin.sort.SortProgress;
+import ru.nsu.fitkulin.stats.SortStats;
+import ru.nsu.fitkulin.stats.StatsReporter;
 
 public class Main {
     private static List<String> chunk80(String s) {
@@ -15,45 +22,121 @@ public class Main {
         return res;
     }
 
+    // Куски строк пачкой в том порядке, какой дали бы вставки по одной: последняя строка — первой,
+    // куски каждой строки — по порядку.
+    private static List<String> frontOrder(List<String> lines) {
+        List<String> reversed = new ArrayList<>();
+        for (String line : lines) {
+            var parts = chunk80(line);
+            for (int i = parts.size() - 1; i >= 0; i--) reversed.add(parts.get(i));
+        }
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    // Формируем вывод целиком вне замков и пишем одним вызовом.
+    private static void print(List<String> snapshot, long steps) {
+        StringBuilder out = new StringBuilder(snapshot.size() * 16 + 128);
+        out.append("---- Список (size=").append(snapshot.size()).append(", steps=").append(steps).append(") ----\n");
+        for (String s : snapshot) out.append(s).append('\n');
+        out.append("-------------------------------------");
+        System.out.println(out);
+    }
+
     public static void main(String[] args) throws Exception {
-        int threads = args.length >= 1 ? Integer.parseInt(args[0]) : 2;
-        long betweenMs = args.length >= 2 ? Long.parseLong(args[1]) : 100;
-        long insideMs  = args.length >= 3 ? Long.parseLong(args[2]) : 100;
+        // флаги можно ставить где угодно, остальное — позиционные: threads between inside
+        boolean oddEven = false;
+        SortEngine engine = SortEngine.BUBBLE;
+        Path load = null;
+        Path sortedOut = null;
+        long budget = BulkLoad.defaultBudgetBytes();
+        long statsSec = 0;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--odd-even".equals(args[i])) oddEven = true;
+            else if ("--engine".equals(args[i]) && i + 1 < args.length) engine = SortEngine.parse(args[++i]);
+            else if ("--load".equals(args[i]) && i + 1 < args.length) load = Path.of(args[++i]);
+            else if ("--sorted-out".equals(args[i]) && i + 1 < args.length) sortedOut = Path.of(args[++i]);
+            else if ("--heap-budget-mb".equals(args[i]) && i + 1 < args.length) budget = Long.parseLong(args[++i]) << 20;
+            else if ("--stats".equals(args[i]) && i + 1 < args.length) statsSec = Long.parseLong(args[++i]);
+            else positional.add(args[i]);
+        }
+        if (oddEven && engine != SortEngine.BUBBLE) {
+            throw new IllegalArgumentException("--odd-even is a bubble-style mode and cannot be combined with --engine");
+        }
+        int threads = positional.size() >= 1 ? Integer.parseInt(positional.get(0)) : 2;
+        long betweenMs = positional.size() >= 2 ? Long.parseLong(positional.get(1)) : 100;
+        long insideMs  = positional.size() >= 3 ? Long.parseLong(positional.get(2)) : 100;
 
-        System.out.printf("ArrayList mode | sorters=%d | delays: between=%dms, inside=%dms%n",
-                threads, betweenMs, insideMs);
+        System.out.printf("ArrayList mode (%s) | sorters=%d | delays: between=%dms, inside=%dms%n",
+                oddEven ? "odd-even, striped" : engine.name().toLowerCase() + ", synchronized", threads, betweenMs, insideMs);
 
         List<String> base = new ArrayList<>();
         List<String> list = Collections.synchronizedList(base);
-        AtomicLong steps = new AtomicLong();
+        SortProgress progress = new SortProgress();
+        StripedArray striped = new StripedArray(progress);
+        boolean striping = oddEven;
+        Supplier<List<String>> snapshot = () -> {
+            if (striping) return striped.snapshot();
+            synchronized (list) { return new ArrayList<>(base); } // под монитором — только arraycopy
+        };
+        SortStats stats = new SortStats(snapshot, oddEven ? striped::size : list::size, threads);
+        StatsReporter.register(stats);
+        Thread reporter = statsSec > 0 ? StatsReporter.start(stats, statsSec) : null;
 
-        var runners = new ArrayList<ArrayBubbleSorter>();
+        var stoppers = new ArrayList<Runnable>();
         var workerThreads = new ArrayList<Thread>();
+        OddEvenPhases phases = new OddEvenPhases(threads, progress);
         for (int i = 0; i < threads; i++) {
-            ArrayBubbleSorter r = new ArrayBubbleSorter(list, betweenMs, insideMs, steps);
+            Runnable r;
+            if (oddEven) {
+                OddEvenSorter s = new OddEvenSorter(striped, phases, i, threads, betweenMs, insideMs, stats);
+                stoppers.add(s::stop);
+                r = s;
+            } else {
+                ArrayBubbleSorter s = new ArrayBubbleSorter(list, engine, progress, betweenMs, insideMs, stats);
+                stoppers.add(s::stop);
+                r = s;
+            }
             Thread t = new Thread(r, "sorter-" + i);
-            runners.add(r);
             workerThreads.add(t);
             t.start();
         }
 
+        SortEngine eng = engine;
+        Consumer<List<String>> insert = front -> {
+            if (striping) striped.pushFrontAll(front);
+            else eng.insert(list, progress, front);
+        };
+        Thread loader = load == null ? null : BulkLoad.start(load, budget, sortedOut,
+                lines -> insert.accept(frontOrder(lines)));
+
         System.out.println("Введите строки. Пустая строка — печать. EOF — выход.");
         try (var br = new BufferedReader(new InputStreamReader(System.in))) {
+            List<String> pending = new ArrayList<>();
             String line;
             while ((line = br.readLine()) != null) {
                 if (line.isEmpty()) {
-                    System.out.println("---- Список (size=" + base.size() + ", steps=" + steps.get() + ") ----");
-                    synchronized (list) { for (String s : list) System.out.println(s); }
-                    System.out.println("-------------------------------------");
+                    if (!pending.isEmpty()) insert.accept(frontOrder(pending));
+                    pending.clear();
+                    print(snapshot.get(), stats.comparisons());
                 } else {
-                    var parts = chunk80(line);
-                    synchronized (list) {
-                        for (int i = parts.size() - 1; i >= 0; i--) list.add(0, parts.get(i));
+                    pending.add(line);
+                    // ввод идёт потоком (вставили из буфера) — копим пачку, иначе вставляем сразу
+                    if (!br.ready() || pending.size() >= BulkLoad.BATCH_LINES) {
+                        insert.accept(frontOrder(pending));
+                        pending.clear();
                     }
                 }
             }
+            if (!pending.isEmpty()) insert.accept(frontOrder(pending));
         } finally {
-            for (ArrayBubbleSorter r : runners) r.stop();
+            if (reporter != null) reporter.interrupt();
+            if (loader != null) {
+                loader.interrupt();
+                loader.join();
+            }
+            for (Runnable stop : stoppers) stop.run();
             for (Thread t : workerThreads) t.interrupt();
             for (Thread t : workerThreads) t.join();
         }
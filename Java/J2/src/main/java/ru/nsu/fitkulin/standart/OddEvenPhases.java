@@ -0,0 +1,44 @@
+package ru.nsu.fitkulin.standart;
+
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ru.nsu.fitkulin.sort.SortProgress;
+
+// Барьер между фазами чётно-нечётной сортировки, который заодно видит, что массив отсортирован.
+// Две фазы подряд (чётная и нечётная) без перестановок, за которые version не сдвинулась,
+// проверили все соседние пары — тогда сортировщики паркуются на SortProgress до вставки.
+// Расширение буфера (смена generation) бывает только при вставке, так что version покрывает и его.
+final class OddEvenPhases extends Phaser {
+    private final SortProgress progress;
+    private final AtomicInteger swaps = new AtomicInteger();
+    // меняются только в onAdvance, а его вызовы упорядочены самим Phaser
+    private long phaseVersion = -1;              // version на начало текущей фазы
+    private int cleanPhases;
+    private volatile long sortedAt = -1;         // -1 — порядок не доказан
+
+    OddEvenPhases(int sorters, SortProgress progress) {
+        super(sorters);
+        this.progress = progress;
+    }
+
+    // Перед arrive: перестановки сортировщика за фазу. Прерванную фазу отмечать как грязную (n > 0).
+    void swapped(int n) {
+        if (n > 0) swaps.addAndGet(n);
+    }
+
+    // После awaitAdvance: если массив отсортирован — ждать вставки.
+    void parkIfSorted() throws InterruptedException {
+        long seen = sortedAt;
+        if (seen >= 0) progress.awaitChange(seen);
+    }
+
+    @Override protected boolean onAdvance(int phase, int registeredParties) {
+        long version = progress.version();
+        boolean clean = swaps.getAndSet(0) == 0 && version == phaseVersion;
+        cleanPhases = clean ? cleanPhases + 1 : 0;
+        phaseVersion = version;
+        sortedAt = cleanPhases >= 2 ? version : -1;
+        return super.onAdvance(phase, registeredParties);
+    }
+}
@@ -0,0 +1,86 @@
+package ru.nsu.fitkulin.standart;
+
+import java.util.concurrent.TimeUnit;
+
+import ru.nsu.fitkulin.stats.SortStats;
+
+// Чётно-нечётная сортировка перестановками: в фазе с чётностью k сравниваются пары (p, p + 1),
+// где p % 2 == k. Пары одной фазы не пересекаются, поэтому сортировщики делят их на равные куски
+// и работают одновременно; между фазами — общий барьер (Phaser).
+// Чётность берётся от физического индекса в StripedArray — он не сдвигается от вставок в начало.
+// Когда OddEvenPhases видит, что массив отсортирован, все сортировщики спят до вставки.
+final class OddEvenSorter implements Runnable {
+    private final StripedArray array;
+    private final OddEvenPhases phaser;
+    private final int index;
+    private final int sorters;
+    private final long delayBetweenMs;
+    private final long delayInsideMs;
+    private final SortStats stats;
+    private volatile boolean running = true;
+
+    // phaser должен быть создан с числом участников, равным sorters
+    OddEvenSorter(StripedArray array, OddEvenPhases phaser, int index, int sorters,
+                  long delayBetweenMs, long delayInsideMs, SortStats stats) {
+        this.array = array;
+        this.phaser = phaser;
+        this.index = index;
+        this.sorters = sorters;
+        this.delayBetweenMs = delayBetweenMs;
+        this.delayInsideMs = delayInsideMs;
+        this.stats = stats;
+    }
+
+    public void stop() { running = false; }
+
+    @Override public void run() {
+        boolean arrived = false;
+        try {
+            int phase = phaser.getPhase();
+            while (running) {
+                phaser.swapped(runPhase(phase & 1));
+                int arrival = phaser.arrive();
+                arrived = true;
+                phase = phaser.awaitAdvanceInterruptibly(arrival);
+                arrived = false;
+                phaser.parkIfSorted();
+            }
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // остальные не должны ждать ушедшего; если уже отметились в фазе — второй раз нельзя
+            if (!arrived) phaser.arriveAndDeregister();
+        }
+    }
+
+    // Число перестановок; фаза, прерванная расширением буфера, считается за одну.
+    private int runPhase(int parity) throws InterruptedException {
+        int generation = array.generation();
+        int front = array.front();
+        int end = array.end();
+        int first = (front & 1) == parity ? front : front + 1;
+        int pairs = Math.max(0, (end - first) / 2);
+
+        // свой кусок пар этой фазы
+        int swaps = 0;
+        int from = (int) ((long) pairs * index / sorters);
+        int to = (int) ((long) pairs * (index + 1) / sorters);
+        for (int j = from; j < to && running; j++) {
+            if (delayInsideMs > 0) TimeUnit.MILLISECONDS.sleep(delayInsideMs);
+
+            int r = array.sortPair(first + 2 * j, generation, stats);
+            if (r < 0) {                   // буфер расширили — до следующей фазы
+                stats.retried();
+                return swaps + 1;
+            }
+            stats.compared();
+            if (r > 0) {
+                stats.swapped();
+                swaps++;
+            }
+
+            if (delayBetweenMs > 0) TimeUnit.MILLISECONDS.sleep(delayBetweenMs);
+        }
+        return swaps;
+    }
+}
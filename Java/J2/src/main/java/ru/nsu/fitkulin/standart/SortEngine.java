@@ -0,0 +1,145 @@
+package ru.nsu.fitkulin.standart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import ru.nsu.fitkulin.sort.SortProgress;
+import ru.nsu.fitkulin.sort.SortRounds;
+import ru.nsu.fitkulin.stats.SortStats;
+
+// Стратегия сортировки для synchronizedList: как Main кладёт строки и что делает сортировщик за раунд.
+enum SortEngine {
+    // Пузырёк: вставка в начало, проходы по соседним парам под монитором списка. O(n²) до порядка.
+    BUBBLE {
+        @Override void work(List<String> list, SortProgress progress, long delayInsideMs, long delayBetweenMs,
+                            SortStats stats, BooleanSupplier running) throws InterruptedException {
+            SortRounds.bubble(progress,
+                    limit -> pass(list, progress, limit, delayInsideMs, delayBetweenMs, stats, running));
+        }
+
+        private int pass(List<String> list, SortProgress progress, int limit, long delayInsideMs, long delayBetweenMs,
+                         SortStats stats, BooleanSupplier running) throws InterruptedException {
+            int n;
+            long t0 = stats.monitorTimer();
+            synchronized (list) {
+                stats.monitorEntered(t0);
+                n = list.size();
+            }
+            int bound = 0;
+            for (int i = 0; i < Math.max(0, n - 1) && running.getAsBoolean(); i++) {
+                if (delayInsideMs > 0) TimeUnit.MILLISECONDS.sleep(delayInsideMs);
+
+                boolean swapped;
+                t0 = stats.monitorTimer();
+                synchronized (list) {
+                    stats.monitorEntered(t0);
+                    if (i + 1 >= list.size()) break;
+                    String a = list.get(i);
+                    String b = list.get(i + 1);
+                    swapped = a.compareTo(b) > 0;
+                    if (swapped) {
+                        Collections.swap(list, i, i + 1);
+                        progress.reordered();
+                    }
+                }
+                stats.compared();
+                if (swapped) {
+                    stats.swapped();
+                    bound = i + 1;
+                }
+                else if (i >= limit) break; // дальше хвост уже по порядку
+
+                if (delayBetweenMs > 0) TimeUnit.MILLISECONDS.sleep(delayBetweenMs);
+            }
+            return bound;
+        }
+    },
+    // Слияние: под монитором только копия и обратная запись, сама сортировка — Arrays.parallelSort
+    // (merge sort на fork-join) без замков. Вставленное в начало за время раунда остаётся перед
+    // отсортированным хвостом и попадёт в следующий раунд.
+    MERGE {
+        // список в программе один, так что раунды сериализуем одним замком на движок
+        private final ReentrantLock rounds = new ReentrantLock();
+
+        @Override void work(List<String> list, SortProgress progress, long delayInsideMs, long delayBetweenMs,
+                            SortStats stats, BooleanSupplier running) throws InterruptedException {
+            SortRounds.merge(progress, delayBetweenMs, () -> round(list, progress, stats));
+        }
+
+        private int round(List<String> list, SortProgress progress, SortStats stats) {
+            if (!rounds.tryLock()) return 0; // раунд уже идёт в другой нити
+            try {
+                Comparator<String> order = stats.countingOrder();
+                String[] copy;
+                synchronized (list) { copy = list.toArray(new String[0]); }
+                if (isSorted(copy, order)) return 0;
+                Arrays.parallelSort(copy, order);
+                synchronized (list) {
+                    int added = list.size() - copy.length; // столько вставили в начало за раунд
+                    for (int i = 0; i < copy.length; i++) list.set(added + i, copy[i]);
+                    progress.reordered();
+                }
+                return copy.length;
+            } finally {
+                rounds.unlock();
+            }
+        }
+    },
+    // Упорядоченная вставка: бинарный поиск места под монитором, сортировщикам делать нечего.
+    INSERT {
+        @Override void insert(List<String> list, SortProgress progress, List<String> front) {
+            if (front.size() == 1) {
+                synchronized (list) {
+                    String s = front.get(0);
+                    int i = Collections.binarySearch(list, s);
+                    list.add(i >= 0 ? i : -i - 1, s);
+                }
+            } else {
+                // пачку сортируем вне монитора и сливаем со списком за один проход
+                String[] add = front.toArray(new String[0]);
+                Arrays.sort(add);
+                synchronized (list) {
+                    List<String> merged = new ArrayList<>(list.size() + add.length);
+                    int j = 0;
+                    for (String s : list) {
+                        while (j < add.length && add[j].compareTo(s) < 0) merged.add(add[j++]);
+                        merged.add(s);
+                    }
+                    while (j < add.length) merged.add(add[j++]);
+                    list.clear();
+                    list.addAll(merged);
+                }
+            }
+            progress.inserted(front.size());
+        }
+
+        @Override void work(List<String> list, SortProgress progress, long delayInsideMs, long delayBetweenMs,
+                            SortStats stats, BooleanSupplier running) throws InterruptedException {
+            SortRounds.idle(progress);
+        }
+    };
+
+    // По умолчанию — пачкой в начало: front[0] станет первым, сдвиг хвоста один на всю пачку.
+    void insert(List<String> list, SortProgress progress, List<String> front) {
+        synchronized (list) { list.addAll(0, front); }
+        progress.inserted(front.size());
+    }
+
+    abstract void work(List<String> list, SortProgress progress, long delayInsideMs, long delayBetweenMs,
+                       SortStats stats, BooleanSupplier running) throws InterruptedException;
+
+    static SortEngine parse(String name) { return SortRounds.parse(SortEngine.class, name); }
+
+    private static boolean isSorted(String[] a, Comparator<String> order) {
+        for (int i = 1; i < a.length; i++) {
+            if (order.compare(a[i - 1], a[i]) > 0) return false;
+        }
+        return true;
+    }
+}
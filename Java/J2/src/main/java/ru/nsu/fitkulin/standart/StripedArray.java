@@ -0,0 +1,127 @@
+package ru.nsu.fitkulin.standart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ru.nsu.fitkulin.sort.SortProgress;
+import ru.nsu.fitkulin.stats.SortStats;
+
+// Массив строк с замками по полосам (по 16 ячеек) вместо одного монитора на весь список.
+//
+// Элементы лежат в хвосте буфера: [front, buf.length). Вставка в начало пишет в front - 1
+// и не сдвигает остальные, поэтому физический индекс элемента стабилен — сортировщики могут
+// работать по индексам, пока Main вставляет. Индексы меняются только при расширении буфера,
+// оно берёт все полосы и увеличивает generation — по нему сортировщик видит, что его
+// индексы устарели. Вставки отмечаются в SortProgress — по ним просыпаются сортировщики.
+final class StripedArray {
+    private static final int STRIPE_SHIFT = 4;   // 16 ячеек на полосу
+    private static final int STRIPES = 64;       // полосы переиспользуются по кругу
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantLock insertLock = new ReentrantLock();
+    private final SortProgress progress;
+    private String[] buf = new String[16];       // меняется только под всеми полосами
+    private volatile int capacity = 16;
+    private volatile int front = 16;
+    private volatile int generation;
+
+    StripedArray(SortProgress progress) {
+        this.progress = progress;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    int size() { return capacity - front; }
+
+    int front() { return front; }
+
+    int generation() { return generation; }
+
+    // Граница [front, end): конец массива; меняется только вместе с generation.
+    int end() { return capacity; }
+
+    // Пачка в начало: front[0] станет первым. Все полосы берём один раз на пачку.
+    void pushFrontAll(List<String> batch) {
+        if (batch.isEmpty()) return;
+        insertLock.lock();
+        try {
+            while (front < batch.size()) grow();
+            lockAll();
+            try {
+                int p = front - batch.size();
+                for (int i = 0; i < batch.size(); i++) buf[p + i] = batch.get(i);
+                front = p;
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            insertLock.unlock();
+        }
+        progress.inserted(batch.size());
+    }
+
+    // Сравнить и при необходимости переставить пару (p, p + 1).
+    // 1 — переставили, 0 — уже по порядку, -1 — индексы устарели (буфер расширили).
+    int sortPair(int p, int expectedGeneration, SortStats stats) {
+        ReentrantLock l1 = stripe(p);
+        ReentrantLock l2 = stripe(p + 1);
+        // порядок захвата — по номеру полосы, как в lockAll(), чтобы не было взаимной блокировки
+        boolean ordered = (p >>> STRIPE_SHIFT) % STRIPES <= ((p + 1) >>> STRIPE_SHIFT) % STRIPES;
+        ReentrantLock first = ordered ? l1 : l2;
+        ReentrantLock second = ordered ? l2 : l1;
+        stats.lock(first);
+        if (second != first) stats.lock(second);
+        try {
+            if (generation != expectedGeneration) return -1;
+            String a = buf[p];
+            String b = buf[p + 1];
+            if (a == null || b == null) return 0; // вне [front, end) — не наши ячейки
+            if (a.compareTo(b) <= 0) return 0;
+            buf[p] = b;
+            buf[p + 1] = a;
+            return 1;
+        } finally {
+            if (second != first) second.unlock();
+            first.unlock();
+        }
+    }
+
+    // Копия содержимого под всеми замками — согласованный снимок для печати.
+    List<String> snapshot() {
+        lockAll();
+        try {
+            return new ArrayList<>(Arrays.asList(buf).subList(front, buf.length));
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // Вызывается под insertLock: место в начале кончилось — удваиваем буфер.
+    private void grow() {
+        lockAll();
+        try {
+            int size = buf.length - front;
+            String[] bigger = new String[buf.length * 2];
+            System.arraycopy(buf, front, bigger, bigger.length - size, size);
+            buf = bigger;
+            capacity = bigger.length;
+            front = bigger.length - size;
+            generation++;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private ReentrantLock stripe(int p) {
+        return stripes[(p >>> STRIPE_SHIFT) % STRIPES];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock l : stripes) l.lock();
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) stripes[i].unlock();
+    }
+}
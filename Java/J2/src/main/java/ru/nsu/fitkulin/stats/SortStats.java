@@ -0,0 +1,115 @@
+package ru.nsu.fitkulin.stats;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+// Счётчики сортировщиков. Горячий путь только пишет в LongAdder (у каждой нити своя ячейка,
+// общей строки кэша, как у AtomicLong steps, нет), всё остальное считается при чтении.
+//
+// Ожидание замка: сначала tryLock — не вышло, значит замок был занят (contended); время ожидания
+// меряем у каждого WAIT_SAMPLE-го такого случая. Для synchronized tryLock нет, там меряем вход
+// в монитор у каждого WAIT_SAMPLE-го захвата вообще.
+public final class SortStats implements SortStatsMXBean {
+    private static final int WAIT_SAMPLE = 8;        // степень двойки
+    private static final int INVERSION_PAIRS = 4096;
+
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder swaps = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder waitSamples = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    private final Supplier<List<String>> snapshot;
+    private final IntSupplier size;
+    private final int sorters;
+
+    public SortStats(Supplier<List<String>> snapshot, IntSupplier size, int sorters) {
+        this.snapshot = snapshot;
+        this.size = size;
+        this.sorters = sorters;
+    }
+
+    public void compared() { comparisons.increment(); }
+
+    // Порядок строк, который сам считает сравнения: для сортировок, которым сравнения не видны
+    // (Arrays.parallelSort и т. п.), — чтобы их число стояло рядом с пузырьком на равных.
+    public Comparator<String> countingOrder() {
+        return (a, b) -> {
+            comparisons.increment();
+            return a.compareTo(b);
+        };
+    }
+
+    public void swapped() { swaps.increment(); }
+
+    // Шаг пришлось повторить: пару успели поменять (смежность, CAS, метка, устаревшие индексы).
+    public void retried() { retries.increment(); }
+
+    public void lock(ReentrantLock l) {
+        if (l.tryLock()) return;
+        contended.increment();
+        if ((ThreadLocalRandom.current().nextInt() & (WAIT_SAMPLE - 1)) != 0) {
+            l.lock();
+            return;
+        }
+        long t0 = System.nanoTime();
+        l.lock();
+        waitNanos.add(System.nanoTime() - t0);
+        waitSamples.increment();
+    }
+
+    // Для synchronized: t0 = monitorTimer() перед блоком, monitorEntered(t0) первой строкой в нём.
+    public long monitorTimer() {
+        return (ThreadLocalRandom.current().nextInt() & (WAIT_SAMPLE - 1)) == 0 ? System.nanoTime() : 0;
+    }
+
+    public void monitorEntered(long t0) {
+        if (t0 == 0) return;
+        waitNanos.add(System.nanoTime() - t0);
+        waitSamples.increment();
+    }
+
+    public long comparisons() { return comparisons.sum(); }
+
+    @Override public int getSize() { return size.getAsInt(); }
+
+    @Override public int getSorters() { return sorters; }
+
+    @Override public long getComparisons() { return comparisons.sum(); }
+
+    @Override public long getSwaps() { return swaps.sum(); }
+
+    @Override public long getRetries() { return retries.sum(); }
+
+    @Override public long getContendedLocks() { return contended.sum(); }
+
+    @Override public double getMeanLockWaitMicros() {
+        long n = waitSamples.sum();
+        return n == 0 ? 0 : waitNanos.sum() / 1000.0 / n;
+    }
+
+    // Доля инвертированных пар по случайной выборке из снимка: 0 — отсортирован, ~0.5 — случайный
+    // порядок, 1 — по убыванию. Снимок берётся тем же путём, что печать.
+    @Override public double getInversionRatio() {
+        List<String> s = snapshot.get();
+        int n = s.size();
+        if (n < 2) return 0;
+        SplittableRandom rnd = new SplittableRandom();
+        int inverted = 0;
+        for (int k = 0; k < INVERSION_PAIRS; k++) {
+            int i = rnd.nextInt(n);
+            int j = rnd.nextInt(n - 1);
+            if (j >= i) j++;
+            int lo = Math.min(i, j), hi = Math.max(i, j);
+            if (s.get(lo).compareTo(s.get(hi)) > 0) inverted++;
+        }
+        return (double) inverted / INVERSION_PAIRS;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.nsu.fitkulin.stats;
+
+// Метрики сортировщиков в JMX (jconsole / VisualVM: ru.nsu.fitkulin:type=J2Sorters).
+public interface SortStatsMXBean {
+    int getSize();
+
+    int getSorters();
+
+    long getComparisons();
+
+    long getSwaps();
+
+    long getRetries();
+
+    long getContendedLocks();
+
+    double getMeanLockWaitMicros();
+
+    double getInversionRatio();
+}
@@ -0,0 +1,50 @@
+package ru.nsu.fitkulin.stats;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Регистрация в JMX и строка статистики раз в period секунд — в stderr, чтобы не мешать печати списка.
+public final class StatsReporter {
+    private StatsReporter() {}
+
+    public static void register(SortStats stats) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(stats, new ObjectName("ru.nsu.fitkulin:type=J2Sorters"));
+        } catch (JMException e) {
+            System.err.println("JMX недоступен: " + e);
+        }
+    }
+
+    // Скорости — за последний период; inversions — оценка по снимку (стоит O(n) на строку).
+    public static Thread start(SortStats stats, long periodSeconds) {
+        Thread t = new Thread(() -> {
+            long cmp = 0, swaps = 0, retries = 0, contended = 0;
+            try {
+                while (true) {
+                    TimeUnit.SECONDS.sleep(periodSeconds);
+                    long c = stats.getComparisons(), s = stats.getSwaps();
+                    long r = stats.getRetries(), l = stats.getContendedLocks();
+                    System.err.printf("[stats] size=%d sorters=%d cmp/s=%d swaps/s=%d retries/s=%d "
+                                    + "contended/s=%d lockWait~%.1fus inversions~%.3f%n",
+                            stats.getSize(), stats.getSorters(), (c - cmp) / periodSeconds,
+                            (s - swaps) / periodSeconds, (r - retries) / periodSeconds,
+                            (l - contended) / periodSeconds, stats.getMeanLockWaitMicros(),
+                            stats.getInversionRatio());
+                    cmp = c;
+                    swaps = s;
+                    retries = r;
+                    contended = l;
+                }
+            } catch (InterruptedException ignored) {
+                // выходим
+            }
+        }, "stats");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.nsu.fitkulin;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Окно запросов в полёте по схеме AIMD, как окно перегрузки в TCP. Пока сервер здоров, каждый
+// удачный ответ добавляет к окну 1/limit, то есть примерно +1 за окно ответов. При признаке
+// перегрузки окно делится пополам. Признаки перегрузки: сервер сам об этом сказал
+// (Fetch.overloaded), короткая средняя задержка заметно выше длинной — значит, запросы начали
+// стоять в очереди у сервера, — либо прочие сбои (500, обрывы, битый JSON) стали заметной долей
+// ответов. Одиночный такой сбой о нагрузке ничего не говорит, но и окно не растит. Явную перегрузку
+// в эту долю не считаем: она делит окно сама, а иначе пачка 503 продолжала бы делить его ещё
+// полтора десятка ответов. Средние, а не один замер и не минимум: одиночный быстрый или медленный
+// ответ окно не двигает. Деление — не чаще раза за короткую среднюю задержку: иначе пачка ответов
+// на одну и ту же перегрузку схлопнула бы окно до минимума.
+final class AdaptiveLimiter {
+    private static final double DECREASE = 0.5;
+    private static final double LATENCY_TOLERANCE = 1.5;
+    private static final long LATENCY_SLACK_NANOS = 5_000_000;
+    private static final double FAILURE_THRESHOLD = 0.25;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final int min;
+    private final int max;
+    private double limit;
+    private int inFlight;
+    private long shortRtt;   // ~8 последних ответов
+    private long longRtt;    // ~128 последних ответов
+    private double failures; // доля прочих сбоев среди ~16 последних ответов
+    private long lastDecrease = System.nanoTime() - Long.MAX_VALUE / 2; // первое деление не ждёт
+
+    AdaptiveLimiter(int initial, int min, int max) {
+        this.min = min;
+        this.max = max;
+        this.limit = Math.max(min, Math.min(max, initial));
+    }
+
+    void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) changed.await();
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Место взяли, но запрос так и не ушёл.
+    void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Запрос завершился. failed — страницу получить не удалось; overloaded — сервер сам сказал,
+    // что перегружен, или не успел ответить. Задержку неудачных запросов в средние не берём:
+    // обрыв приходит быстрее любого ответа.
+    void release(long rttNanos, boolean failed, boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            failures += ((failed && !overloaded ? 1 : 0) - failures) / 16;
+            if (!failed) {
+                shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) / 8;
+                longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) / 128;
+            }
+            boolean slow = shortRtt > longRtt * LATENCY_TOLERANCE + LATENCY_SLACK_NANOS;
+            long now = System.nanoTime();
+            if (overloaded || slow || failures > FAILURE_THRESHOLD) {
+                if (now - lastDecrease > shortRtt) {
+                    limit = Math.max(min, limit * DECREASE);
+                    lastDecrease = now;
+                }
+            } else if (!failed) {
+                limit = Math.min(max, limit + 1 / limit);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
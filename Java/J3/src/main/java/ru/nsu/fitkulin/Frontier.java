@@ -0,0 +1,89 @@
+package ru.nsu.fitkulin;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Очередь адресов, которые ещё предстоит обойти. Воркеры берут задачи через take() и отмечают
+// конец обработки через done(). Обход закончен, когда очередь пуста и ни одна задача не в работе.
+//
+// BFS берёт задачи с головы, а кладёт в хвост. DFS и кладёт, и берёт с головы.
+// Если очередь переросла softLimit, BFS тоже начинает класть в голову. Так обход уходит в глубину
+// и сначала дорабатывает уже найденное, а очередь не растёт вместе с шириной графа.
+// Блокировать put нельзя: ждали бы те же воркеры, которые очередь и разбирают.
+final class Frontier {
+    // attempt — сколько раз страницу уже пробовали скачать.
+    record Task(String path, int depth, int attempt) {
+        Task retry() { return new Task(path, depth, attempt + 1); }
+    }
+
+    private final Deque<Task> queue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final WebSpider.Order order;
+    private final int softLimit;
+    private int active;
+    private int peak;
+
+    Frontier(WebSpider.Order order, int softLimit) {
+        this.order = order;
+        this.softLimit = softLimit;
+    }
+
+    void push(Task task) { pushAll(List.of(task)); }
+
+    // В голову кладём с конца, чтобы первый преемник и взят был первым.
+    void pushAll(List<Task> tasks) {
+        if (tasks.isEmpty()) return;
+        lock.lock();
+        try {
+            if (order == WebSpider.Order.DFS || queue.size() >= softLimit) {
+                for (int i = tasks.size() - 1; i >= 0; i--) queue.addFirst(tasks.get(i));
+            } else {
+                queue.addAll(tasks);
+            }
+            peak = Math.max(peak, queue.size());
+            if (tasks.size() == 1) changed.signal();
+            else changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // null — обход закончен.
+    Task take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queue.isEmpty()) {
+                if (active == 0) return null;
+                changed.await();
+            }
+            active++;
+            return queue.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Вызывать после take(), когда преемники задачи уже в очереди.
+    void done() {
+        lock.lock();
+        try {
+            active--;
+            if (active == 0 && queue.isEmpty()) changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int peak() {
+        lock.lock();
+        try {
+            return peak;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
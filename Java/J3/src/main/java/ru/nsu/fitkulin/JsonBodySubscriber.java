@@ -0,0 +1,84 @@
+package ru.nsu.fitkulin;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+// Тело ответа сразу идёт в неблокирующий парсер Jackson, по буферу за раз, как их отдаёт HttpClient.
+// Экономится только копия тела в String/byte[]: токены всего документа всё равно
+// копятся в TokenBuffer (память порядка размера тела), и в конце из них собирается объект.
+// Любая ошибка, в том числе RuntimeException маппера, завершает result — иначе fetch повис бы.
+final class JsonBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+    private final ObjectMapper mapper;
+    private final Class<T> type;
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final TokenBuffer tokens;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    JsonBodySubscriber(ObjectMapper mapper, Class<T> type) {
+        this.mapper = mapper;
+        this.type = type;
+        try {
+            this.parser = mapper.getFactory().createNonBlockingByteBufferParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        this.tokens = new TokenBuffer(parser);
+    }
+
+    @Override public CompletionStage<T> getBody() { return result; }
+
+    @Override public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override public void onNext(List<ByteBuffer> buffers) {
+        if (result.isDone()) return; // после cancel ещё могут прийти буферы
+        try {
+            for (ByteBuffer b : buffers) {
+                feeder.feedInput(b);
+                drain(); // парсер берёт следующий буфер, только когда разобрал предыдущий
+            }
+            subscription.request(1);
+        } catch (Throwable e) {
+            subscription.cancel();
+            result.completeExceptionally(e);
+        }
+    }
+
+    @Override public void onError(Throwable t) {
+        result.completeExceptionally(t);
+    }
+
+    @Override public void onComplete() {
+        try {
+            feeder.endOfInput();
+            drain();
+            result.complete(mapper.readValue(tokens.asParser(mapper), type));
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void drain() throws IOException {
+        JsonToken t;
+        while ((t = parser.nextToken()) != null && t != JsonToken.NOT_AVAILABLE) {
+            tokens.copyCurrentEvent(parser);
+        }
+    }
+}
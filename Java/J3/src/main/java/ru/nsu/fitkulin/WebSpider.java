@@ -1,24 +1,89 @@
 package ru.nsu.fitkulin;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 
 public class WebSpider {
+    private static final long MAX_BACKOFF_MS = 10_000;
+    private static final long MAX_RETRY_AFTER_MS = 60_000;
+
     private final HttpClient client;
-    private final Set<String> visitedUrls;
-    private final Queue<String> messages;
+    // Наименьшая глубина, на которой адрес встречался, и сообщение страницы по её адресу.
+    private final ConcurrentMap<String, Integer> bestDepth;
+    private final ConcurrentMap<String, String> messages;
     private final String baseUrl;
     private final ObjectMapper objectMapper;
     private final ExecutorService virtualThreadExecutor;
-    private final Phaser phaser;
+    private final Settings settings;
+    private final Frontier frontier;
+    private final AdaptiveLimiter limiter;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failedPages = new LongAdder();
+    private CompletableFuture<Void> completion = CompletableFuture.completedFuture(null);
+
+    public enum Order { BFS, DFS }
+
+    // maxDepth < 0 — без ограничения глубины. Воркеры только раздают задачи из очереди в sendAsync,
+    // ответы разбираются в нитях клиента, так что нескольких воркеров хватает и на maxInFlight запросов.
+    // maxInFlight — верхняя граница окна AdaptiveLimiter; начинает оно с четверти.
+    // retries — сколько раз повторять страницу после временной ошибки, backoffMillis — первая пауза.
+    public record Settings(int workers, int maxInFlight, Order order, int maxDepth, int frontierLimit,
+                           int retries, long backoffMillis) {
+        public Settings {
+            Objects.requireNonNull(order, "order");
+            if (workers < 1) throw new IllegalArgumentException("workers must be at least 1: " + workers);
+            if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+            if (frontierLimit < 1) throw new IllegalArgumentException("frontierLimit must be at least 1: " + frontierLimit);
+            if (retries < 0) throw new IllegalArgumentException("retries must not be negative: " + retries);
+            if (backoffMillis < 0) throw new IllegalArgumentException("backoffMillis must not be negative: " + backoffMillis);
+        }
+
+        public static Settings defaults() {
+            return new Settings(4, 32, Order.BFS, -1, 100_000, 4, 100);
+        }
+    }
+
+    // Одна попытка: body — при 200, retryAfter — из заголовка, error — если ответа нет вовсе.
+    private record Fetch(int status, ServerResponse body, Duration retryAfter, Throwable error) {
+        boolean ok() { return status == 200 && body != null; }
+
+        // Неудача для AdaptiveLimiter: ответа нет, он битый или это ошибка сервера. 404 и прочие
+        // 4xx — нормальный ответ здорового сервера.
+        boolean failed() {
+            return error != null || status == 429 || status >= 500 || (status == 200 && body == null);
+        }
+
+        // Временные ошибки: 429 и 5xx, таймауты и обрывы соединения. Битый JSON, 404 и прочие
+        // 4xx при повторе не исправятся.
+        boolean retryable() {
+            if (error != null) return error instanceof IOException && !(error instanceof JsonProcessingException);
+            return status == 429 || status >= 500;
+        }
+
+        // Признак перегрузки для AdaptiveLimiter: сервер просит сбавить темп, не успевает ответить
+        // или не принимает соединение. Одиночный 500 или обрыв о нагрузке ничего не говорят.
+        boolean overloaded() {
+            if (error != null) return error instanceof HttpTimeoutException || error instanceof ConnectException;
+            return status == 429 || status == 502 || status == 503 || status == 504;
+        }
+    }
 
     public record ServerResponse(
             String message,
@@ -26,17 +91,26 @@ public class WebSpider {
     ) {}
 
     public WebSpider(String baseUrl) {
+        this(baseUrl, Settings.defaults());
+    }
+
+    public WebSpider(String baseUrl, Settings settings) {
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
 
-        this.visitedUrls = ConcurrentHashMap.newKeySet();
-        this.messages = new ConcurrentLinkedQueue<>();
+        this.bestDepth = new ConcurrentHashMap<>();
+        this.messages = new ConcurrentHashMap<>();
         this.objectMapper = new ObjectMapper();
         this.virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
-        this.phaser = new Phaser(1);
+        this.settings = settings;
+        this.frontier = new Frontier(settings.order(), settings.frontierLimit());
+        this.limiter = new AdaptiveLimiter(settings.maxInFlight() / 4, 1, settings.maxInFlight());
 
+        // HTTP/2: все запросы к серверу идут потоками одного соединения. Если сервер h2 не умеет
+        // (для http:// это отказ от Upgrade: h2c), клиент остаётся на HTTP/1.1 с keep-alive,
+        // и соединения берутся из пула, а не открываются на каждый запрос.
         this.client = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
-                .version(HttpClient.Version.HTTP_1_1)
+                .version(HttpClient.Version.HTTP_2)
                 .build();
     }
 
@@ -46,79 +120,176 @@ public class WebSpider {
         return withLeading.replaceAll("/{2,}", "/");
     }
 
+    // Обход идёт фиксированным числом воркеров по общей очереди; будущее завершается, когда
+    // очередь опустела, ответов в пути нет и все воркеры вышли.
     public CompletableFuture<Void> crawlAsync(String rawPath) {
-        final String path = normalizePath(rawPath);
-
-        if (!visitedUrls.add(path)) {
-            return CompletableFuture.completedFuture(null);
+        String root = normalizePath(rawPath);
+        if (discover(root, 0)) {
+            frontier.push(new Frontier.Task(root, 0, 0));
         }
 
-        phaser.register();
-
-        return CompletableFuture
-                .supplyAsync(() -> fetchUrl(path), virtualThreadExecutor)
-                .thenCompose(response -> {
-                    if (response == null) return CompletableFuture.completedFuture(null);
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[settings.workers()];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = CompletableFuture.runAsync(this::work, virtualThreadExecutor);
+        }
+        completion = CompletableFuture.allOf(workers);
+        return completion;
+    }
 
-                    if (response.message() != null) {
-                        messages.add(response.message());
+    // Разрешение на запрос берём до задачи: пока все запросы в полёте, очередь не трогаем.
+    // Разрешение и задача отпускаются, когда ответ разобран и преемники уже в очереди.
+    private void work() {
+        try {
+            while (true) {
+                limiter.acquire();
+                Frontier.Task task = frontier.take();
+                if (task == null) {
+                    limiter.cancel();
+                    return;
+                }
+                long t0 = System.nanoTime();
+                fetchUrl(task.path()).thenAccept(fetch -> {
+                    limiter.release(System.nanoTime() - t0, fetch.failed(), fetch.overloaded());
+                    boolean retrying = false;
+                    try {
+                        if (fetch.ok()) process(task, fetch.body());
+                        else retrying = retryLater(task, fetch);
+                    } catch (RuntimeException e) {
+                        System.err.println("Error processing " + task.path() + ": " + e.getMessage());
+                    } finally {
+                        if (!retrying) frontier.done();
                     }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-                    List<String> succ = response.successors();
-                    if (succ == null || succ.isEmpty()) {
-                        return CompletableFuture.completedFuture(null);
-                    }
+    // true — задача вернётся в очередь после паузы. Тогда done() вызовет отложенный шаг уже после
+    // push: иначе очередь на время паузы выглядела бы пустой, и обход закончился бы раньше времени.
+    private boolean retryLater(Frontier.Task task, Fetch fetch) {
+        String what = fetch.error() != null ? fetch.error().toString() : "HTTP " + fetch.status();
+        if (!fetch.retryable() || task.attempt() >= settings.retries()) {
+            failedPages.increment();
+            System.err.println("Failed to fetch " + task.path() + ": " + what
+                    + (task.attempt() > 0 ? " (attempts: " + (task.attempt() + 1) + ")" : ""));
+            return false;
+        }
+        long delay = backoffMillis(task.attempt(), fetch.retryAfter());
+        retries.increment();
+        System.err.println(what + " for " + task.path() + ", retry " + (task.attempt() + 1) + "/"
+                + settings.retries() + " in " + delay + " ms");
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            frontier.push(task.retry());
+            frontier.done();
+        });
+        return true;
+    }
 
-                    List<CompletableFuture<Void>> futures = new ArrayList<>(succ.size());
-                    for (String s : succ) {
-                        futures.add(crawlAsync(s));
-                    }
-                    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
-                })
-                .whenComplete((r, t) -> {
-                    phaser.arriveAndDeregister();
-                    if (t != null) {
-                        System.err.println("Error processing " + path + ": " + t.getMessage());
-                    }
-                });
+    // Экспонента с полным разбросом: случайно от 0 до backoff * 2^attempt (не больше MAX_BACKOFF_MS),
+    // чтобы повторы после общего сбоя не приходили на сервер одной волной. Retry-After сервера —
+    // нижняя граница паузы.
+    private long backoffMillis(int attempt, Duration retryAfter) {
+        long cap = Math.min(MAX_BACKOFF_MS, settings.backoffMillis() << Math.min(attempt, 20));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        if (retryAfter != null) {
+            delay = Math.max(delay, Math.min(MAX_RETRY_AFTER_MS, retryAfter.toMillis()));
+        }
+        return delay;
     }
 
-    private ServerResponse fetchUrl(String rawPath) {
+    // Retry-After: либо секунды, либо HTTP-дата.
+    private static Duration retryAfter(HttpHeaders headers) {
+        Optional<String> value = headers.firstValue("Retry-After");
+        if (value.isEmpty()) return null;
+        String v = value.get().trim();
         try {
-            String path = normalizePath(rawPath);
-            String fullUrl = baseUrl + path;
-            System.out.println("Fetching URL: " + fullUrl);
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(v)));
+        } catch (NumberFormatException e) {
+            try {
+                Duration d = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME));
+                return d.isNegative() ? Duration.ZERO : d;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
 
-            HttpRequest request = HttpRequest.newBuilder()
+    private void process(Frontier.Task task, ServerResponse response) {
+        if (response.message() != null) {
+            messages.putIfAbsent(task.path(), response.message());
+        }
+
+        List<String> succ = response.successors();
+        int depth = task.depth() + 1;
+        if (succ == null || succ.isEmpty() || (settings.maxDepth() >= 0 && depth > settings.maxDepth())) {
+            return;
+        }
+        // Страницу уже нашли ближе к корню, и та копия разошлёт преемников сама.
+        if (bestDepth.get(task.path()) < task.depth()) {
+            return;
+        }
+
+        List<Frontier.Task> next = new ArrayList<>(succ.size());
+        for (String s : succ) {
+            String path = normalizePath(s);
+            if (discover(path, depth)) {
+                next.add(new Frontier.Task(path, depth, 0));
+            }
+        }
+        frontier.pushAll(next);
+    }
+
+    // true — адрес надо обойти: он новый или, при ограничении глубины, найден ближе к корню, чем
+    // раньше. Воркеры и повторы нарушают порядок BFS, и страница может сперва прийти длинным путём;
+    // если её не обойти снова, преемники на последнем разрешённом уровне потеряются.
+    private boolean discover(String path, int depth) {
+        Integer old = bestDepth.putIfAbsent(path, depth);
+        if (settings.maxDepth() < 0) return old == null;
+        while (old != null) {
+            if (old <= depth) return false;
+            if (bestDepth.replace(path, old, depth)) return true;
+            old = bestDepth.get(path);
+        }
+        return true;
+    }
+
+    // Исключения не пробрасываются, а попадают в Fetch.error: что повторять, решает retryLater.
+    private CompletableFuture<Fetch> fetchUrl(String rawPath) {
+        String path = normalizePath(rawPath);
+        String fullUrl = baseUrl + path;
+        System.out.println("Fetching URL: " + fullUrl);
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
                     .uri(URI.create(fullUrl))
                     .timeout(Duration.ofSeconds(15))
                     .header("Accept", "application/json")
                     .GET()
                     .build();
-
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() != 200) {
-                System.err.println("HTTP " + response.statusCode() + " for URL: " + fullUrl);
-                return null;
-            }
-            return objectMapper.readValue(response.body(), ServerResponse.class);
-
-        } catch (Exception e) {
-            System.err.println("Failed to fetch " + rawPath + ": " + e.getMessage());
-            return null;
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new Fetch(0, null, null, e));
         }
+
+        return client.sendAsync(request, info -> info.statusCode() == 200
+                        ? new JsonBodySubscriber<>(objectMapper, ServerResponse.class)
+                        : HttpResponse.BodySubscribers.replacing((ServerResponse) null))
+                .thenApply(r -> new Fetch(r.statusCode(), r.body(), retryAfter(r.headers()), null))
+                .exceptionally(e -> new Fetch(0, null, null,
+                        e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
     }
 
     public List<String> getSortedMessages() {
-        return messages.stream()
+        return messages.values().stream()
                 .filter(Objects::nonNull)
                 .sorted()
                 .toList();
     }
 
     public void waitForCompletion() {
-        phaser.arriveAndAwaitAdvance();
+        completion.join();
     }
 
     public void shutdown() {
@@ -127,13 +298,34 @@ public class WebSpider {
 
     public static void main(String[] args) {
         String studentId = "FitkulinIldar";
-        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int port = 8080;
+        Settings d = Settings.defaults();
+        int workers = d.workers();
+        int maxInFlight = d.maxInFlight();
+        Order order = d.order();
+        int maxDepth = d.maxDepth();
+        int frontierLimit = d.frontierLimit();
+        int retries = d.retries();
+        long backoffMillis = d.backoffMillis();
+        for (int i = 0; i < args.length; i++) {
+            if ("--workers".equals(args[i]) && i + 1 < args.length) workers = Integer.parseInt(args[++i]);
+            else if ("--in-flight".equals(args[i]) && i + 1 < args.length) maxInFlight = Integer.parseInt(args[++i]);
+            else if ("--order".equals(args[i]) && i + 1 < args.length) order = Order.valueOf(args[++i].toUpperCase());
+            else if ("--max-depth".equals(args[i]) && i + 1 < args.length) maxDepth = Integer.parseInt(args[++i]);
+            else if ("--frontier".equals(args[i]) && i + 1 < args.length) frontierLimit = Integer.parseInt(args[++i]);
+            else if ("--retries".equals(args[i]) && i + 1 < args.length) retries = Integer.parseInt(args[++i]);
+            else if ("--backoff-ms".equals(args[i]) && i + 1 < args.length) backoffMillis = Long.parseLong(args[++i]);
+            else port = Integer.parseInt(args[i]);
+        }
+        Settings settings = new Settings(workers, maxInFlight, order, maxDepth, frontierLimit,
+                retries, backoffMillis);
         String baseUrl = "http://localhost:" + port;
 
         System.out.println("Starting WebSpider for student: " + studentId);
         System.out.println("Server URL: " + baseUrl);
+        System.out.println("Settings: " + settings);
 
-        WebSpider spider = new WebSpider(baseUrl);
+        WebSpider spider = new WebSpider(baseUrl, settings);
         long startTime = System.currentTimeMillis();
 
         try {
@@ -147,7 +339,11 @@ public class WebSpider {
 
             System.out.println("\n=== STATISTICS ===");
             System.out.println("Total messages: " + result.size());
-            System.out.println("Visited URLs: " + spider.visitedUrls.size());
+            System.out.println("Visited URLs: " + spider.bestDepth.size());
+            System.out.println("Peak frontier: " + spider.frontier.peak());
+            System.out.println("Retries: " + spider.retries.sum());
+            System.out.println("Failed pages: " + spider.failedPages.sum());
+            System.out.println("Final in-flight limit: " + spider.limiter.limit());
             System.out.println("Execution time: " + (System.currentTimeMillis() - startTime) + " ms");
 
         } finally {